@@ -0,0 +1,79 @@
+package bench;
+
+import main.HangmanManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the engines of record on the first guess of a game, where the family is largest: games created from a
+ * plain collection keying words a character at a time or column by column, selected through the "hangman.columnar"
+ * system property of their fork, and games of a dictionary index, the path used by main.HangmanMain.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ColumnarBenchmark {
+
+    /**
+     * Length of the word to guess.
+     */
+    @Param({"4", "6", "8", "12"})
+    public int length;
+
+    /**
+     * Game created from the plain collection, before its first guess.
+     */
+    private HangmanManager fromCollection;
+    /**
+     * Game created from the index, before its first guess.
+     */
+    private HangmanManager fromIndex;
+
+    /**
+     * Prepares fresh games for the next invocation.
+     *
+     * @param dictionary state
+     */
+    @Setup(Level.Invocation)
+    public void prepare(DictionaryState dictionary) {
+        int guesses = DictionaryState.GUESS_ORDER.length();
+        this.fromCollection = new HangmanManager(dictionary.words, this.length, guesses);
+        this.fromIndex = new HangmanManager(dictionary.index, this.length, guesses);
+    }
+
+    /**
+     * First guess keyed a character at a time.
+     *
+     * @return matches of the guess
+     */
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dhangman.columnar=false")
+    public int scalar() {
+        return this.fromCollection.record(DictionaryState.GUESS_ORDER.charAt(0));
+    }
+
+    /**
+     * First guess keyed column by column.
+     *
+     * @return matches of the guess
+     */
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dhangman.columnar=true")
+    public int columnar() {
+        return this.fromCollection.record(DictionaryState.GUESS_ORDER.charAt(0));
+    }
+
+    /**
+     * First guess partitioned over the letter index.
+     *
+     * @return matches of the guess
+     */
+    @Benchmark
+    public int indexed() {
+        return this.fromIndex.record(DictionaryState.GUESS_ORDER.charAt(0));
+    }
+}
@@ -0,0 +1,46 @@
+package bench;
+
+import main.HangmanManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of starting a game for each word length.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConstructionBenchmark {
+
+    /**
+     * Length of the word to guess.
+     */
+    @Param({"4", "5", "6", "8", "10", "12"})
+    public int length;
+
+    /**
+     * Creates a game from the shared dictionary index, the path used by main.HangmanMain.
+     *
+     * @param dictionary state
+     * @return new game
+     */
+    @Benchmark
+    public HangmanManager fromIndex(DictionaryState dictionary) {
+        return new HangmanManager(dictionary.index, this.length, 10);
+    }
+
+    /**
+     * Creates a game by scanning the whole dictionary.
+     *
+     * @param dictionary state
+     * @return new game
+     */
+    @Benchmark
+    public HangmanManager fromCollection(DictionaryState dictionary) {
+        return new HangmanManager(dictionary.words, this.length, 10);
+    }
+}
@@ -0,0 +1,63 @@
+package bench;
+
+import main.DictionaryFile;
+import main.DictionaryIndex;
+import main.HangmanManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.FileNotFoundException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Benchmark state holding the real dictionary, loaded once per benchmark run. The dictionary file is read from
+ * the path in the "dictionary" system property, or from "dictionary" in the working directory.
+ */
+@State(Scope.Benchmark)
+public class DictionaryState {
+
+    /**
+     * Letters guessed by the benchmarks, most frequent in English first.
+     */
+    public static final String GUESS_ORDER = "esiarntolcdupmghbyfvkwzxqj";
+
+    /**
+     * Words of the dictionary in file order.
+     */
+    public List<String> words;
+    /**
+     * Index over the dictionary.
+     */
+    public DictionaryIndex index;
+
+    /**
+     * Loads the dictionary.
+     *
+     * @throws FileNotFoundException if cannot find dictionary
+     */
+    @Setup(Level.Trial)
+    public void load() throws FileNotFoundException {
+        this.words = DictionaryFile.readText(Paths.get(System.getProperty("dictionary", "dictionary")));
+        this.index = new DictionaryIndex(this.words);
+    }
+
+    /**
+     * Guesses letters in GUESS_ORDER that have not been guessed yet until a condition holds or the game ends.
+     *
+     * @param hangman to guess with
+     * @param done condition to stop at
+     * @return the next letter in GUESS_ORDER that has not been guessed
+     * @throws IllegalStateException if the game ended before the condition held
+     */
+    public static char playUntil(HangmanManager hangman, Predicate<HangmanManager> done) {
+        int next = 0;
+        while (!done.test(hangman)) {
+            if (hangman.guessesLeft() < 1 || !hangman.pattern().contains("-")) {
+                throw new IllegalStateException();
+            }
+            hangman.record(GUESS_ORDER.charAt(next++));
+        }
+        return GUESS_ORDER.charAt(next);
+    }
+}
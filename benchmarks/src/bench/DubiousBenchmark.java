@@ -0,0 +1,55 @@
+package bench;
+
+import main.DubiousHangmanManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the last-guess override of main.DubiousHangmanManager, where record first scans the current words for
+ * one without the guess before partitioning.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DubiousBenchmark {
+
+    /**
+     * Length of the word to guess.
+     */
+    @Param({"4", "5", "6", "8", "10", "12"})
+    public int length;
+
+    /**
+     * Game with one guess left.
+     */
+    private DubiousHangmanManager lastLife;
+    /**
+     * Next letter to guess in lastLife.
+     */
+    private char guess;
+
+    /**
+     * Prepares a game down to its last guess for the next invocation.
+     *
+     * @param dictionary state
+     */
+    @Setup(Level.Invocation)
+    public void prepare(DictionaryState dictionary) {
+        this.lastLife = new DubiousHangmanManager(dictionary.index, this.length, 2);
+        this.guess = DictionaryState.playUntil(this.lastLife, hangman -> hangman.guessesLeft() == 1);
+    }
+
+    /**
+     * Guess on the last life, which triggers the override.
+     *
+     * @return matches of the guess
+     */
+    @Benchmark
+    public int lastGuess() {
+        return this.lastLife.record(this.guess);
+    }
+}
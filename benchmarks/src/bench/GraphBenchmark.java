@@ -0,0 +1,97 @@
+package bench;
+
+import main.HangmanManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the stores of the words of games of a dictionary index, selected through the "hangman.graph" system
+ * property of their fork: the bitset over the letter index, and the constraints over the word graph, whose walks
+ * shrink as guesses reveal letters. Times the first guess, where the family is largest, and a guess once the family
+ * is down to a few hundred words.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GraphBenchmark {
+
+    /**
+     * Length of the word to guess.
+     */
+    @Param({"4", "8", "12"})
+    public int length;
+
+    /**
+     * Game before its first guess.
+     */
+    private HangmanManager first;
+    /**
+     * Game whose family is down to a few hundred words.
+     */
+    private HangmanManager later;
+    /**
+     * Next guess of the later game.
+     */
+    private char laterGuess;
+
+    /**
+     * Prepares fresh games for the next invocation.
+     *
+     * @param dictionary state
+     */
+    @Setup(Level.Invocation)
+    public void prepare(DictionaryState dictionary) {
+        int guesses = DictionaryState.GUESS_ORDER.length();
+        this.first = new HangmanManager(dictionary.index, this.length, guesses);
+        this.later = new HangmanManager(dictionary.index, this.length, guesses);
+        this.laterGuess = DictionaryState.playUntil(this.later, game -> game.words().size() < 500);
+    }
+
+    /**
+     * First guess partitioned over the letter index.
+     *
+     * @return matches of the guess
+     */
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dhangman.graph=false")
+    public int bitsetFirst() {
+        return this.first.record(DictionaryState.GUESS_ORDER.charAt(0));
+    }
+
+    /**
+     * First guess partitioned over the word graph.
+     *
+     * @return matches of the guess
+     */
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dhangman.graph=true")
+    public int graphFirst() {
+        return this.first.record(DictionaryState.GUESS_ORDER.charAt(0));
+    }
+
+    /**
+     * Later guess partitioned over the letter index.
+     *
+     * @return matches of the guess
+     */
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dhangman.graph=false")
+    public int bitsetLater() {
+        return this.later.record(this.laterGuess);
+    }
+
+    /**
+     * Later guess partitioned over the word graph.
+     *
+     * @return matches of the guess
+     */
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dhangman.graph=true")
+    public int graphLater() {
+        return this.later.record(this.laterGuess);
+    }
+}
@@ -0,0 +1,98 @@
+package bench;
+
+import main.HangmanManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures record at three stages of a game: the first guess over every word of the length, a guess in the middle
+ * of the game and a guess once only a single word is left. Every invocation gets a freshly prepared game since
+ * record changes its state.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RecordBenchmark {
+
+    /**
+     * Guesses made before the mid-game guess.
+     */
+    private static final int MID_GAME_GUESSES = 3;
+
+    /**
+     * Length of the word to guess.
+     */
+    @Param({"4", "5", "6", "8", "10", "12"})
+    public int length;
+
+    /**
+     * Game before its first guess.
+     */
+    private HangmanManager opening;
+    /**
+     * Game after MID_GAME_GUESSES guesses.
+     */
+    private HangmanManager midGame;
+    /**
+     * Next letter to guess in midGame.
+     */
+    private char midGameGuess;
+    /**
+     * Game with a single word left.
+     */
+    private HangmanManager endgame;
+    /**
+     * Next letter to guess in endgame.
+     */
+    private char endgameGuess;
+
+    /**
+     * Prepares fresh games for the next invocation.
+     *
+     * @param dictionary state
+     */
+    @Setup(Level.Invocation)
+    public void prepare(DictionaryState dictionary) {
+        int guesses = DictionaryState.GUESS_ORDER.length();
+        this.opening = new HangmanManager(dictionary.index, this.length, guesses);
+        this.midGame = new HangmanManager(dictionary.index, this.length, guesses);
+        this.midGameGuess = DictionaryState.playUntil(this.midGame,
+                hangman -> hangman.guesses().size() == MID_GAME_GUESSES);
+        this.endgame = new HangmanManager(dictionary.index, this.length, guesses);
+        this.endgameGuess = DictionaryState.playUntil(this.endgame, hangman -> hangman.words().size() == 1);
+    }
+
+    /**
+     * First guess of a game.
+     *
+     * @return matches of the guess
+     */
+    @Benchmark
+    public int firstGuess() {
+        return this.opening.record(DictionaryState.GUESS_ORDER.charAt(0));
+    }
+
+    /**
+     * Guess in the middle of a game.
+     *
+     * @return matches of the guess
+     */
+    @Benchmark
+    public int midGameGuess() {
+        return this.midGame.record(this.midGameGuess);
+    }
+
+    /**
+     * Guess with a single word left.
+     *
+     * @return matches of the guess
+     */
+    @Benchmark
+    public int endgameGuess() {
+        return this.endgame.record(this.endgameGuess);
+    }
+}
@@ -0,0 +1,128 @@
+package Tests;
+
+import main.DictionaryFile;
+import main.DictionaryIndex;
+import main.HangmanManager;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test suite for DictionaryFile
+ */
+public class DictionaryFileTest {
+
+    /**
+     * Checks if a dictionary written in the binary format maps back to the same words of every length
+     * @throws IOException if the temporary file cannot be written or read
+     */
+    @Test
+    public void ifDictionaryWrittenthenMapReturnsSameWords() throws IOException {
+        DictionaryIndex index = new DictionaryIndex(DictionaryFile.readText(new File("testDictionary").toPath()));
+        Path binary = Files.createTempFile("dictionary", ".bin");
+        try {
+            DictionaryFile.write(index, binary);
+            DictionaryIndex mapped = DictionaryFile.map(binary);
+            assertEquals(index.size(), mapped.size());
+            for (int length = 0; length <= index.maxLength(); length++) {
+                assertEquals(new ArrayList<>(index.words(length)), new ArrayList<>(mapped.words(length)));
+            }
+            assertEquals(index.words(4), new HangmanManager(mapped, 4, 5).words());
+        } finally {
+            Files.delete(binary);
+        }
+    }
+
+    /**
+     * Checks if words outside of ISO-8859-1, and their alphabet, survive the binary format
+     * @throws IOException if the temporary file cannot be written or read
+     */
+    @Test
+    public void ifWordsAreNotLatinthenMapReturnsSameWords() throws IOException {
+        DictionaryIndex index = new DictionaryIndex(Arrays.asList("мир", "дом", "éte"));
+        Path binary = Files.createTempFile("dictionary", ".bin");
+        try {
+            DictionaryFile.write(index, binary);
+            DictionaryIndex mapped = DictionaryFile.map(binary);
+            assertEquals(new ArrayList<>(index.words(3)), new ArrayList<>(mapped.words(3)));
+            assertEquals(index.alphabet().size(), mapped.alphabet().size());
+            for (int letter = 0; letter < index.alphabet().size(); letter++) {
+                assertEquals(index.alphabet().letter(letter), mapped.alphabet().letter(letter));
+            }
+        } finally {
+            Files.delete(binary);
+        }
+    }
+
+    /**
+     * Checks if streaming a bucket gives the same words as reading the whole dictionary, across chunk boundaries
+     * @throws IOException if dictionary file does not exist
+     */
+    @Test
+    public void ifBucketStreamedthenSameWordsAsWholeDictionary() throws IOException {
+        Path text = new File("dictionary").toPath();
+        DictionaryIndex index = new DictionaryIndex(DictionaryFile.readText(text));
+        for (int length = 1; length <= index.maxLength() + 1; length++) {
+            DictionaryIndex streamed = DictionaryFile.streamText(text, length);
+            assertEquals(new ArrayList<>(index.words(length)), new ArrayList<>(streamed.words(length)));
+            assertEquals(index.count(length), streamed.size());
+        }
+    }
+
+    /**
+     * Checks if reading and streaming lower-case the same way whatever the default locale
+     * @throws IOException if the temporary file cannot be written or read
+     */
+    @Test
+    public void ifDefaultLocaleTurkishthenReadAndStreamGiveSameWords() throws IOException {
+        Path text = Files.createTempFile("dictionary", ".txt");
+        Locale locale = Locale.getDefault();
+        try {
+            Locale.setDefault(new Locale("tr", "TR"));
+            Files.writeString(text, "LIMIT Été IRIS мир", StandardCharsets.UTF_8);
+            DictionaryIndex index = new DictionaryIndex(DictionaryFile.readText(text));
+            for (int length = 3; length <= 5; length++) {
+                assertEquals(Arrays.asList(DictionaryFile.readBucket(text, length)),
+                        new ArrayList<>(index.words(length)));
+            }
+            assertTrue(index.words(4).contains("iris"));
+        } finally {
+            Locale.setDefault(locale);
+            Files.delete(text);
+        }
+    }
+
+    /**
+     * Checks if streaming lower-cases and removes duplicates, including words outside of ASCII
+     * @throws IOException if the temporary file cannot be written or read
+     */
+    @Test
+    public void ifWordsRepeatInOtherCasesthenStreamKeepsOne() throws IOException {
+        Path text = Files.createTempFile("dictionary", ".txt");
+        try {
+            Files.writeString(text, "Word word WORD\n\tÉté été MIR мир Мир\nwords wor");
+            assertEquals(Arrays.asList("word"), Arrays.asList(DictionaryFile.readBucket(text, 4)));
+            assertEquals(Arrays.asList("mir", "wor", "été", "мир"), Arrays.asList(DictionaryFile.readBucket(text, 3)));
+        } finally {
+            Files.delete(text);
+        }
+    }
+
+    /**
+     * Checks if map() throws an IOException for a file that is not a binary dictionary
+     */
+    @Test
+    public void ifFileIsPlainTextthenMapThrowsIOException() {
+        assertThrows(IOException.class,
+                () -> DictionaryFile.map(new File("testDictionary").toPath()));
+    }
+}
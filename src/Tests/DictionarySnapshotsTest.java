@@ -0,0 +1,152 @@
+package Tests;
+
+import main.DictionaryFile;
+import main.DictionaryIndex;
+import main.DictionarySnapshots;
+import main.GameLog;
+import main.HangmanManager;
+import main.HangmanServer;
+import main.PartitionCache;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test suite for DictionarySnapshots
+ */
+public class DictionarySnapshotsTest {
+
+    /**
+     * Checks if a reload starts new games from the new words while games already running, and their logged
+     * history, keep the words they started with
+     * @throws Exception if the dictionary or log cannot be written, or the reload fails
+     */
+    @Test
+    public void ifReloadedthenRunningGamesKeepTheirVersion() throws Exception {
+        Path file = Files.createTempFile("dictionary", ".txt");
+        Path path = Files.createTempFile("games", ".log");
+        try {
+            Files.write(file, Arrays.asList("deal", "ally", "ibex", "cool"));
+            DictionarySnapshots snapshots = new DictionarySnapshots(version -> {
+                DictionaryIndex index = new DictionaryIndex(DictionaryFile.readText(file));
+                return new DictionarySnapshots.Snapshot(version, index, new PartitionCache(index, 16), null);
+            }, file);
+            DictionarySnapshots.Snapshot first = snapshots.current();
+            HangmanManager old = new HangmanManager(first.dictionary(), 4, 5, first.cache(), null);
+            assertFalse(snapshots.reloadIfModified());
+
+            Files.write(file, Arrays.asList("jazz", "fizz", "buzz"));
+            DictionarySnapshots.Snapshot second = snapshots.reload().get();
+            assertEquals(2, second.version());
+            assertSame(second, snapshots.current());
+            HangmanManager fresh = new HangmanManager(second.dictionary(), 4, 5, second.cache(), null);
+            assertEquals(Arrays.asList("buzz", "fizz", "jazz"), new ArrayList<>(fresh.words()));
+            assertEquals(0, old.record('z'));
+            assertEquals(Arrays.asList("ally", "cool", "deal", "ibex"), new ArrayList<>(old.words()));
+
+            try (GameLog log = GameLog.open(path, first.dictionary(), null, null, 2)) {
+                log.start(1, fresh);
+                log.record(1, fresh, 'a');
+                log.record(1, fresh, 'z');
+                log.record(1, fresh, 'b');
+                assertEquals(fresh.words(), log.rebuild(1, 3).words());
+                assertEquals(Arrays.asList('a', 'z'), new ArrayList<>(log.undo(1).guesses()));
+            }
+            snapshots.close();
+        } finally {
+            Files.delete(file);
+            Files.delete(path);
+        }
+    }
+
+    /**
+     * Checks if a server restarted after a reload changed the words of some length resumes the logged games of the
+     * other lengths and ends those of that length instead of failing to start
+     * @throws Exception if the dictionary or log cannot be written, the reload fails or the port cannot be bound
+     */
+    @Test
+    public void ifWordsSwappedthenRestartEndsStaleGames() throws Exception {
+        Path file = Files.createTempFile("dictionary", ".txt");
+        Path path = Files.createTempFile("games", ".log");
+        try {
+            Files.write(file, Arrays.asList("deal", "ally", "ibex", "cool", "jumbo", "fuzzy", "vivid"));
+            DictionarySnapshots snapshots = new DictionarySnapshots(version -> {
+                DictionaryIndex index = new DictionaryIndex(DictionaryFile.readText(file));
+                return new DictionarySnapshots.Snapshot(version, index, new PartitionCache(index, 16), null);
+            }, file);
+            DictionaryIndex first = snapshots.current().dictionary();
+            HangmanManager four = new HangmanManager(first, 4, 5);
+            HangmanManager five = new HangmanManager(first, 5, 5);
+            try (GameLog log = GameLog.open(path, first, null, null, 2)) {
+                log.start(1, four);
+                log.start(2, five);
+                log.record(1, four, 'e');
+                log.record(2, five, 'u');
+            }
+
+            Files.write(file, Arrays.asList("jazz", "fizz", "buzz", "jumbo", "fuzzy", "vivid"));
+            DictionaryIndex second = snapshots.reload().get().dictionary();
+            try (GameLog log = GameLog.open(path, second, null, null, 2)) {
+                HangmanServer server = new HangmanServer(snapshots, 0, log);
+                server.stop();
+                assertEquals(1, server.sessions());
+                assertEquals(1, log.size());
+            }
+            try (GameLog log = GameLog.open(path, second, null, null, 2)) {
+                Map<Long, HangmanManager> games = log.recover();
+                assertEquals(Collections.singleton(2L), games.keySet());
+                assertEquals(five.words(), games.get(2L).words());
+            }
+            snapshots.close();
+        } finally {
+            Files.delete(file);
+            Files.delete(path);
+        }
+    }
+
+    /**
+     * Checks if a reload that fails leaves the old version current and is tried again at the next check, and if
+     * awaitReload hands out the new version once the files can be read
+     * @throws Exception if the dictionary cannot be written
+     */
+    @Test
+    public void ifReloadFailsthenNextCheckRetries() throws Exception {
+        Path file = Files.createTempFile("dictionary", ".txt");
+        try {
+            Files.write(file, Arrays.asList("deal", "ally"));
+            DictionarySnapshots snapshots = new DictionarySnapshots(version -> {
+                List<String> words = DictionaryFile.readText(file);
+                if (words.contains("broken")) {
+                    throw new IOException("broken");
+                }
+                return new DictionarySnapshots.Snapshot(version, new DictionaryIndex(words), null, null);
+            }, file);
+            Files.write(file, Arrays.asList("broken"));
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 1000));
+            assertTrue(snapshots.reloadIfModified());
+            assertEquals(1, snapshots.awaitReload().version());
+            assertTrue(snapshots.reloadIfModified());
+            assertEquals(1, snapshots.awaitReload().version());
+
+            Files.write(file, Arrays.asList("jazz", "fizz"));
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 2000));
+            assertTrue(snapshots.reloadIfModified());
+            DictionarySnapshots.Snapshot reloaded = snapshots.awaitReload();
+            assertEquals(Arrays.asList("fizz", "jazz"), new ArrayList<>(reloaded.dictionary().words(4)));
+            assertFalse(snapshots.reloadIfModified());
+            snapshots.close();
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package Tests;
 
 import main.DubiousHangmanManager;
+import main.MetricsRegistry;
 import org.junit.Test;
 
 import java.io.File;
@@ -47,6 +48,21 @@ public class DubiousHangmanManagerTest {
         assertFalse(this.dubiousHangman.words().iterator().next().contains("b"));
     }
 
+    /**
+     * Checks if the forced failure on the last guess is reported to the game's metrics
+     * @throws FileNotFoundException if dictionary file does not exist
+     */
+    @Test
+    public void ifRecordForcesFailurethenMetricsCountIt() throws FileNotFoundException {
+        setUp("dictionary", 5, 2);
+        MetricsRegistry metrics = new MetricsRegistry();
+        this.dubiousHangman.setMetrics(metrics);
+        this.dubiousHangman.record('a');
+        assertEquals(0, metrics.lastGuessesForced());
+        this.dubiousHangman.record('b');
+        assertEquals(1, metrics.lastGuessesForced());
+    }
+
     /**
      * Chceks if words() returns an immutable set
      * @throws FileNotFoundException if dictionary file does not exist
@@ -0,0 +1,79 @@
+package Tests;
+
+import main.DictionaryFile;
+import main.DictionaryIndex;
+import main.FamilyStrategy;
+import main.HangmanManager;
+import main.PartitionCache;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test suite for FamilyStrategy
+ */
+public class FamilyStrategyTest {
+
+    /**
+     * Checks if a strategy sees every family of the partition with sizes adding up to the words partitioned, and if
+     * the family it picks is the one kept
+     * @throws IOException if dictionary file does not exist
+     */
+    @Test
+    public void ifStrategySetthenItSeesThePartitionAndPicksTheFamily() throws IOException {
+        DictionaryIndex index = new DictionaryIndex(DictionaryFile.readText(new File("dictionary").toPath()));
+        HangmanManager game = new HangmanManager(index, 6, 10);
+        List<Integer> smallest = new ArrayList<>();
+        game.setStrategy(partition -> {
+            int total = 0;
+            int best = 0;
+            for (int family = 0; family < partition.families(); family++) {
+                total += partition.size(family);
+                assertEquals(Long.bitCount(partition.key(family)), partition.hits(family));
+                if (partition.size(family) < partition.size(best)) best = family;
+            }
+            assertEquals(partition.words(), total);
+            smallest.add(partition.size(best));
+            return partition.key(best);
+        });
+        game.record('e');
+        assertEquals((int) smallest.get(0), game.words().size());
+    }
+
+    /**
+     * Checks if the fewest revealed strategy keeps the miss whenever some word lacks the guess, and ignores the
+     * shared cache, which only holds largest families
+     */
+    @Test
+    public void ifFewestRevealedthenMissesWheneverPossible() {
+        DictionaryIndex index = new DictionaryIndex(Arrays.asList("abc", "abd", "abe", "xyz"));
+        PartitionCache cache = new PartitionCache(index, 16);
+        HangmanManager greedy = new HangmanManager(index, 3, 5, cache);
+        assertEquals(1, greedy.record('a'));
+        HangmanManager fewest = new HangmanManager(index, 3, 5, cache);
+        fewest.setStrategy(FamilyStrategy.fewestRevealed());
+        assertEquals(0, fewest.record('a'));
+        assertEquals(Arrays.asList("xyz"), new ArrayList<>(fewest.words()));
+        assertEquals(FamilyStrategy.LARGEST, greedy.strategy());
+        assertThrows(IllegalArgumentException.class, () -> FamilyStrategy.named("smallest"));
+    }
+
+    /**
+     * Checks if a strategy picking a key that is no family of the partition is reported rather than emptying the game
+     */
+    @Test
+    public void ifStrategyPicksUnknownKeythenRecordThrowsIllegalStateException() {
+        DictionaryIndex index = new DictionaryIndex(Arrays.asList("abc", "abd", "abe", "xyz"));
+        HangmanManager game = new HangmanManager(index, 3, 5);
+        game.setStrategy(partition -> 0b010);
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> game.record('a'));
+        assertTrue(thrown.getMessage().contains("strategy"));
+        assertEquals(4, game.words().size());
+    }
+}
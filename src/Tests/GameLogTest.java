@@ -0,0 +1,205 @@
+package Tests;
+
+import main.DictionaryFile;
+import main.DictionaryIndex;
+import main.DubiousHangmanManager;
+import main.GameLog;
+import main.HangmanManager;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test suite for GameLog
+ */
+public class GameLogTest {
+
+    /**
+     * Checks if reopening a log rebuilds the games that have not ended in the state of their last guess
+     * @throws IOException if dictionary file does not exist or the log cannot be written
+     */
+    @Test
+    public void ifLogReopenedthenLiveGamesAreRebuilt() throws IOException {
+        DictionaryIndex index = new DictionaryIndex(DictionaryFile.readText(new File("dictionary").toPath()));
+        Path path = Files.createTempFile("games", ".log");
+        try {
+            HangmanManager first = new DubiousHangmanManager(index, 7, 10);
+            HangmanManager second = new HangmanManager(index, 5, 8);
+            try (GameLog log = GameLog.open(path, index, null, null, 3)) {
+                log.start(1, first);
+                log.start(2, second);
+                log.start(3, new HangmanManager(index, 4, 8));
+                for (char guess : "eaiostr".toCharArray()) {
+                    log.record(1, first, guess);
+                }
+                log.record(2, second, 'e');
+                log.end(3);
+            }
+            try (GameLog log = GameLog.open(path, index, null, null, 3)) {
+                Map<Long, HangmanManager> games = log.recover();
+                assertEquals(2, games.size());
+                for (long id = 1; id <= 2; id++) {
+                    HangmanManager original = id == 1 ? first : second;
+                    HangmanManager rebuilt = games.get(id);
+                    assertEquals(original.getClass(), rebuilt.getClass());
+                    assertEquals(original.words(), rebuilt.words());
+                    assertEquals(original.guesses(), rebuilt.guesses());
+                    assertEquals(original.guessesLeft(), rebuilt.guessesLeft());
+                    assertEquals(original.pattern(), rebuilt.pattern());
+                }
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Checks if undo gives back the game as it was before the last guess, and if the undo survives a reopen
+     * @throws IOException if dictionary file does not exist or the log cannot be written
+     */
+    @Test
+    public void ifGuessUndonethenGameIsAsBeforeIt() throws IOException {
+        DictionaryIndex index = new DictionaryIndex(DictionaryFile.readText(new File("dictionary").toPath()));
+        Path path = Files.createTempFile("games", ".log");
+        try {
+            HangmanManager game = new HangmanManager(index, 6, 10);
+            HangmanManager before = new HangmanManager(index, 6, 10);
+            try (GameLog log = GameLog.open(path, index, null, null, 2)) {
+                log.start(7, game);
+                for (char guess : "eaio".toCharArray()) {
+                    log.record(7, game, guess);
+                    before.record(guess);
+                }
+                log.record(7, game, 'u');
+                HangmanManager undone = log.undo(7);
+                assertEquals(before.words(), undone.words());
+                assertEquals(before.guesses(), undone.guesses());
+                assertEquals(before.pattern(), undone.pattern());
+                assertEquals(before.guessesLeft(), undone.guessesLeft());
+                log.record(7, undone, 's');
+                before.record('s');
+            }
+            try (GameLog log = GameLog.open(path, index, null, null, 2)) {
+                HangmanManager rebuilt = log.recover().get(7L);
+                assertEquals(before.words(), rebuilt.words());
+                assertEquals(before.guesses(), rebuilt.guesses());
+                assertEquals(new HangmanManager(index, 6, 10).words(), log.rebuild(7, 0).words());
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Checks if a partly written last event is dropped and the log can be appended to again
+     * @throws IOException if dictionary file does not exist or the log cannot be written
+     */
+    @Test
+    public void ifLastEventTornthenItIsDropped() throws IOException {
+        DictionaryIndex index = new DictionaryIndex(DictionaryFile.readText(new File("dictionary").toPath()));
+        Path path = Files.createTempFile("games", ".log");
+        try {
+            HangmanManager game = new HangmanManager(index, 5, 8);
+            try (GameLog log = GameLog.open(path, index, null, null, 10)) {
+                log.start(1, game);
+                log.record(1, game, 'e');
+                log.record(1, game, 'a');
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(channel.size() - 1);
+            }
+            try (GameLog log = GameLog.open(path, index, null, null, 10)) {
+                HangmanManager rebuilt = log.recover().get(1L);
+                assertEquals(1, rebuilt.guesses().size());
+                log.record(1, rebuilt, 'o');
+            }
+            try (GameLog log = GameLog.open(path, index, null, null, 10)) {
+                assertEquals(2, log.recover().get(1L).guesses().size());
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Checks if a checkpoint that cannot be read makes recover fail rather than ending the game for good
+     * @throws IOException if dictionary file does not exist or the log cannot be written
+     */
+    @Test
+    public void ifCheckpointCorruptthenRecoverThrowsAndKeepsTheGame() throws IOException {
+        DictionaryIndex index = new DictionaryIndex(DictionaryFile.readText(new File("dictionary").toPath()));
+        Path path = Files.createTempFile("games", ".log");
+        try {
+            HangmanManager game = new HangmanManager(index, 5, 8);
+            try (GameLog log = GameLog.open(path, index, null, null, 10)) {
+                log.start(1, game);
+                log.record(1, game, 'e');
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                // Header, then the checkpoint's type, id, guesses and size, then the snapshot's magic and version.
+                channel.write(ByteBuffer.wrap(new byte[] {9}), 8 + 1 + 8 + 4 + 4 + 4);
+            }
+            try (GameLog log = GameLog.open(path, index, null, null, 10)) {
+                assertThrows(IllegalArgumentException.class, log::recover);
+                assertEquals(1, log.size());
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Checks if reopening a log mostly made of ended games rewrites it with the live games alone, which still
+     * rebuild and undo as before
+     * @throws IOException if dictionary file does not exist or the log cannot be written
+     */
+    @Test
+    public void ifMostGamesEndedthenOpenCompactsTheLog() throws IOException {
+        DictionaryIndex index = new DictionaryIndex(DictionaryFile.readText(new File("dictionary").toPath()));
+        Path path = Files.createTempFile("games", ".log");
+        try {
+            HangmanManager live = new HangmanManager(index, 6, 10);
+            HangmanManager before = new HangmanManager(index, 6, 10);
+            try (GameLog log = GameLog.open(path, index, null, null, 2)) {
+                log.start(0, live);
+                for (char guess : "eaiou".toCharArray()) {
+                    log.record(0, live, guess);
+                    if (guess != 'u') before.record(guess);
+                }
+                for (long id = 1; id <= 200; id++) {
+                    HangmanManager game = new HangmanManager(index, 4 + (int) (id % 5), 8);
+                    log.start(id, game);
+                    log.record(id, game, 'e');
+                    log.record(id, game, 's');
+                    log.end(id);
+                }
+            }
+            long size = Files.size(path);
+            try (GameLog log = GameLog.open(path, index, null, null, 2)) {
+                assertTrue(Files.size(path) * 10 < size);
+                assertEquals(live.words(), log.recover().get(0L).words());
+                HangmanManager undone = log.undo(0);
+                assertEquals(before.words(), undone.words());
+                assertEquals(before.guesses(), undone.guesses());
+                log.record(0, undone, 't');
+                before.record('t');
+            }
+            try (GameLog log = GameLog.open(path, index, null, null, 2)) {
+                assertEquals(1, log.size());
+                assertEquals(before.words(), log.recover().get(0L).words());
+                assertEquals(new HangmanManager(index, 6, 10).words(), log.rebuild(0, 0).words());
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package Tests;
+
+import main.DictionaryFile;
+import main.DictionaryIndex;
+import main.DubiousHangmanManager;
+import main.GameSnapshot;
+import main.HangmanManager;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test suite for GameSnapshot
+ */
+public class GameSnapshotTest {
+
+    /**
+     * Checks if a restored game is in the same state as the saved one and plays on the same way
+     * @throws IOException if dictionary file does not exist
+     */
+    @Test
+    public void ifGameRestoredthenItPlaysLikeTheOriginal() throws IOException {
+        DictionaryIndex index = new DictionaryIndex(DictionaryFile.readText(new File("dictionary").toPath()));
+        HangmanManager original = new HangmanManager(index, 7, 10);
+        for (char guess : "eaio".toCharArray()) {
+            original.record(guess);
+        }
+        byte[] snapshot = GameSnapshot.save(original, index);
+        HangmanManager restored = GameSnapshot.restore(snapshot, index);
+        assertEquals(original.words(), restored.words());
+        assertEquals(original.guesses(), restored.guesses());
+        assertEquals(original.guessesLeft(), restored.guessesLeft());
+        assertEquals(original.pattern(), restored.pattern());
+        for (char guess : "ustnrl".toCharArray()) {
+            assertEquals(original.record(guess), restored.record(guess));
+            assertEquals(original.words(), restored.words());
+            assertEquals(original.pattern(), restored.pattern());
+        }
+    }
+
+    /**
+     * Checks if a fresh game and a game down to one word take only a few bytes and keep their kind
+     * @throws IOException if dictionary file does not exist
+     */
+    @Test
+    public void ifFamilyIsWholeBucketOrOneWordthenSnapshotIsTiny() throws IOException {
+        DictionaryIndex index = new DictionaryIndex(DictionaryFile.readText(new File("dictionary").toPath()));
+        DubiousHangmanManager game = new DubiousHangmanManager(index, 5, 2);
+        assertTrue(GameSnapshot.save(game, index).length < 24);
+        game.record('a');
+        game.record('b');
+        byte[] snapshot = GameSnapshot.save(game, index);
+        assertTrue(snapshot.length < 32);
+        HangmanManager restored = GameSnapshot.restore(snapshot, index);
+        assertTrue(restored instanceof DubiousHangmanManager);
+        assertEquals(game.words(), restored.words());
+        assertEquals(0, restored.guessesLeft());
+    }
+
+    /**
+     * Checks if restore throws an IllegalArgumentException against a dictionary with other words of that length
+     * @throws IOException if dictionary file does not exist
+     */
+    @Test
+    public void ifDictionaryChangedthenRestoreThrowsIllegalArgumentException() throws IOException {
+        DictionaryIndex index = new DictionaryIndex(DictionaryFile.readText(new File("testDictionary").toPath()));
+        HangmanManager game = new HangmanManager(index, 4, 5);
+        game.record('e');
+        byte[] snapshot = GameSnapshot.save(game, index);
+        DictionaryIndex other = new DictionaryIndex(Arrays.asList("ally", "beta", "cool"));
+        assertThrows(IllegalArgumentException.class, () -> GameSnapshot.restore(snapshot, other));
+    }
+
+}
@@ -1,13 +1,26 @@
 package Tests;
 
+import main.DictionaryFile;
+import main.DictionaryIndex;
+import main.GameMetrics;
 import main.HangmanManager;
+import main.MetricsRegistry;
+import main.OpeningBook;
+import main.PartitionCache;
 import org.junit.Test;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.TreeMap;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -55,6 +68,18 @@ public class HangmanManagerTest {
                 () -> setUp("dictionary", 0, 5));
     }
 
+    /**
+     * Checks if a length longer than the partitioner's keys gives a game without words rather than an exception
+     */
+    @Test
+    public void ifLengthOverSixtyFourthenGameHasNoWords() {
+        List<String> dictionary = Arrays.asList("a".repeat(65), "good");
+        assertTrue(new HangmanManager(dictionary, 65, 5).words().isEmpty());
+        HangmanManager indexed = new HangmanManager(new DictionaryIndex(dictionary), 65, 5);
+        assertTrue(indexed.words().isEmpty());
+        assertThrows(IllegalStateException.class, () -> indexed.record('a'));
+    }
+
     /**
      * Checks if constructor throws an IllegalArgumentException if input guesses is less than one
      * @throws FileNotFoundException if dictionary file does not exist
@@ -211,4 +236,226 @@ public class HangmanManagerTest {
         this.hangman.record('w');
         assertEquals(target, this.hangman.words().iterator().next());
     }
-}
\ No newline at end of file
+
+    /**
+     * Checks if record() breaks ties between equally large families the same way as ordering their patterns
+     */
+    @Test
+    public void ifFamiliesTiethenRecordPicksSmallestPattern() {
+        this.hangman = new HangmanManager(Arrays.asList("ab", "ba", "cd"), 2, 5);
+        assertEquals(0, this.hangman.record('c'));
+        assertEquals(1, this.hangman.record('a'));
+        assertEquals("- a", this.hangman.pattern());
+        assertEquals("ba", this.hangman.words().iterator().next());
+    }
+
+    /**
+     * Checks if a game created from a dictionary index starts with the same sorted, de-duplicated words
+     */
+    @Test
+    public void ifCreatedFromIndexthenWordsMatchDictionaryOfThatLength() {
+        List<String> dictionary = Arrays.asList("deal", "ally", "ibex", "deal", "cool", "go");
+        DictionaryIndex index = new DictionaryIndex(dictionary);
+        this.hangman = new HangmanManager(index, 4, 5);
+        assertEquals(Arrays.asList("ally", "cool", "deal", "ibex"), new ArrayList<>(this.hangman.words()));
+        assertEquals(new HangmanManager(dictionary, 4, 5).words(), this.hangman.words());
+        assertEquals(5, index.size());
+    }
+
+    /**
+     * Checks if a game created from a plain collection, which keys words column by column, narrows down to the same
+     * families as a game of the dictionary index
+     * @throws IOException if dictionary file does not exist
+     */
+    @Test
+    public void ifCreatedFromCollectionthenColumnsPartitionLikeIndex() throws IOException {
+        List<String> dictionary = DictionaryFile.readText(new File("dictionary").toPath());
+        HangmanManager indexed = new HangmanManager(new DictionaryIndex(dictionary), 9, 8);
+        this.hangman = new HangmanManager(dictionary, 9, 8);
+        for (char guess : "ezaisrtq".toCharArray()) {
+            assertEquals(indexed.record(guess), this.hangman.record(guess));
+            assertEquals(indexed.pattern(), this.hangman.pattern());
+            assertEquals(indexed.words(), this.hangman.words());
+        }
+    }
+
+    /**
+     * Checks if a game of a dictionary index hands out a read-only view of its family that follows every guess
+     */
+    @Test
+    public void ifCreatedFromIndexthenWordsIsReadOnlyViewOfFamily() {
+        DictionaryIndex index = new DictionaryIndex(Arrays.asList("deal", "ally", "ibex", "cool", "dell"));
+        this.hangman = new HangmanManager(index, 4, 5);
+        Set<String> words = this.hangman.words();
+        this.hangman.record('e');
+        assertEquals(Arrays.asList("ally", "cool"), new ArrayList<>(words));
+        assertTrue(words.contains("cool"));
+        assertFalse(words.contains("dell"));
+        assertThrows(UnsupportedOperationException.class, () -> words.add("ally"));
+        assertThrows(UnsupportedOperationException.class, () -> words.iterator().remove());
+    }
+
+    /**
+     * Checks if a game sharing a partition cache plays the same as one without it and hits the cache on repeat states
+     * @throws FileNotFoundException if dictionary file does not exist
+     */
+    @Test
+    public void ifStateRepeatsthenCachedGameMatchesUncachedGame() throws FileNotFoundException {
+        DictionaryIndex index = new DictionaryIndex(DictionaryFile.readText(new File("dictionary").toPath()));
+        PartitionCache cache = new PartitionCache(index, 100);
+        for (int game = 0; game < 2; game++) {
+            HangmanManager cached = new HangmanManager(index, 6, 12, cache);
+            HangmanManager uncached = new HangmanManager(index, 6, 12);
+            for (char guess : "aeiouygntrslpmb".toCharArray()) {
+                assertEquals(uncached.record(guess), cached.record(guess));
+                assertEquals(uncached.pattern(), cached.pattern());
+                assertEquals(uncached.words(), cached.words());
+            }
+            assertEquals("clucks", cached.words().iterator().next());
+        }
+        assertTrue(cache.hits() > 0);
+        assertEquals(cache.misses(), cache.size());
+    }
+
+    /**
+     * Checks if a partition cache smaller than its number of segments never holds more entries than its bound
+     * @throws FileNotFoundException if dictionary file does not exist
+     */
+    @Test
+    public void ifCacheBoundSmallthenSizeStaysWithinBound() throws FileNotFoundException {
+        DictionaryIndex index = new DictionaryIndex(DictionaryFile.readText(new File("dictionary").toPath()));
+        PartitionCache cache = new PartitionCache(index, 3);
+        HangmanManager hangman = new HangmanManager(index, 6, 26, cache);
+        for (char guess : "aeiouygntrslpmb".toCharArray()) {
+            hangman.record(guess);
+            assertTrue(cache.size() <= 3);
+        }
+        assertEquals(cache.misses() - cache.size(), cache.evictions());
+    }
+
+    /**
+     * Checks if a game taking its first guesses from an opening book plays the same as one partitioning every guess
+     * @throws IOException if the opening book cannot be written or read
+     */
+    @Test
+    public void ifGuessesInOpeningBookthenGameMatchesPartitionedGame() throws IOException {
+        DictionaryIndex index = new DictionaryIndex(DictionaryFile.readText(new File("dictionary").toPath()));
+        Path path = Files.createTempFile("opening", ".book");
+        try {
+            OpeningBook.generate(index, 2, path);
+            OpeningBook book = OpeningBook.map(path, index);
+            HangmanManager booked = new HangmanManager(index, 10, 15, null, book);
+            HangmanManager partitioned = new HangmanManager(index, 10, 15);
+            for (char guess : "eoaiuytgnlhmrsw".toCharArray()) {
+                assertEquals(partitioned.record(guess), booked.record(guess));
+                assertEquals(partitioned.pattern(), booked.pattern());
+                assertEquals(partitioned.words(), booked.words());
+            }
+            assertEquals("upswinging", booked.words().iterator().next());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    /**
+     * Checks if a truncated opening book is rejected with an IOException rather than failing on a read past its end
+     * @throws IOException if the opening book cannot be written
+     */
+    @Test
+    public void ifOpeningBookTruncatedthenMapThrowsIOException() throws IOException {
+        DictionaryIndex index = new DictionaryIndex(Arrays.asList("deal", "ally", "ibex", "cool", "jumbo", "fuzzy"));
+        Path path = Files.createTempFile("opening", ".book");
+        try {
+            OpeningBook.generate(index, 2, path);
+            byte[] book = Files.readAllBytes(path);
+            for (int size : new int[] {20, 60, 80}) {
+                Files.write(path, Arrays.copyOf(book, size));
+                assertThrows(IOException.class, () -> OpeningBook.map(path, index));
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    /**
+     * Checks if an instrumented game reports every phase and partition of record to its metrics
+     * @throws FileNotFoundException if dictionary file does not exist
+     */
+    @Test
+    public void ifMetricsSetthenRecordReportsPhasesAndFamilies() throws FileNotFoundException {
+        setUp("dictionary", 5, 5);
+        MetricsRegistry metrics = new MetricsRegistry();
+        this.hangman.setMetrics(metrics);
+        int words = this.hangman.words().size();
+        this.hangman.record('e');
+        this.hangman.record('a');
+        assertEquals(2, metrics.phase(GameMetrics.Phase.BUILD_WORD_MAP).count());
+        assertEquals(2, metrics.phase(GameMetrics.Phase.FIND_LARGEST_LIST).count());
+        assertEquals(2, metrics.phase(GameMetrics.Phase.COUNT_MATCHES).count());
+        assertEquals(0, metrics.phase(GameMetrics.Phase.FINAL_WORD_GUESSES).count());
+        assertEquals(words, metrics.wordsScanned().max());
+        assertEquals(2, metrics.familySize().count());
+        assertEquals(this.hangman.words().size(), metrics.familySize().percentile(0),
+                this.hangman.words().size() / 8.0);
+        assertTrue(metrics.families().max() > 1);
+    }
+
+    /**
+     * Checks if a dictionary outside of ASCII is played through its alphabet, letters missing from it are misses and
+     * characters that are not letters are rejected
+     */
+    @Test
+    public void ifDictionaryIsCyrillicthenAlphabetMapsItsLetters() {
+        DictionaryIndex index = new DictionaryIndex(Arrays.asList("мир", "дом", "сок", "кот"));
+        assertEquals("дикморст", index.alphabet().toString());
+        assertEquals(0, index.alphabet().indexOf('д'));
+        assertEquals(-1, index.alphabet().indexOf('e'));
+        HangmanManager game = new HangmanManager(index, 3, 5);
+        assertEquals(1, game.record('о'));
+        assertEquals(0, game.record('ж'));
+        assertEquals(3, game.words().size());
+        assertEquals(4, game.guessesLeft());
+        assertEquals("- о -", game.pattern());
+        assertThrows(IllegalArgumentException.class, () -> game.record('ж'));
+        assertThrows(IllegalArgumentException.class, () -> game.record('?'));
+        assertFalse(game.canGuess('7'));
+    }
+
+    /**
+     * Checks if the letter counts of indexed and plain games follow the words as guesses narrow them down
+     * @throws IOException if the dictionary cannot be read
+     */
+    @Test
+    public void ifGuessesNarrowWordsthenLetterCountsFollow() throws IOException {
+        DictionaryIndex index = new DictionaryIndex(DictionaryFile.readText(new File("dictionary").toPath()));
+        setUp("dictionary", 6, 10);
+        HangmanManager indexed = new HangmanManager(index, 6, 10);
+        assertEquals(letterCounts(indexed.words()), indexed.letterCounts());
+        assertEquals(letterCounts(this.hangman.words()), this.hangman.letterCounts());
+        for (char guess : "easont".toCharArray()) {
+            indexed.record(guess);
+            this.hangman.record(guess);
+            assertEquals(letterCounts(indexed.words()), indexed.letterCounts());
+            assertEquals(letterCounts(this.hangman.words()), this.hangman.letterCounts());
+        }
+        for (char letter : indexed.pattern().replace("-", "").replace(" ", "").toCharArray()) {
+            assertEquals(indexed.words().size(), indexed.wordsWith(letter));
+        }
+        assertEquals(0, indexed.wordsWith('7'));
+    }
+
+    /**
+     * 'Helper' that counts the words holding each letter the slow way.
+     * @param words to count
+     * @return number of words with each letter
+     */
+    private static Map<Character, Integer> letterCounts(Set<String> words) {
+        Map<Character, Integer> counts = new TreeMap<>();
+        for (String word : words) {
+            for (int i = 0; i < word.length(); i++) {
+                if (word.indexOf(word.charAt(i)) == i) counts.merge(word.charAt(i), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+}
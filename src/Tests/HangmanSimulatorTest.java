@@ -0,0 +1,52 @@
+package Tests;
+
+import main.DictionaryFile;
+import main.DictionaryIndex;
+import main.HangmanSimulator;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test suite for HangmanSimulator
+ */
+public class HangmanSimulatorTest {
+
+    /**
+     * Checks if every bot and mode gets one CSV row per word length and every game is counted once
+     * @throws IOException if dictionary file does not exist
+     * @throws InterruptedException if interrupted while waiting for games
+     */
+    @Test
+    public void ifSimulationFinishesthenEveryBotModeAndLengthHasOneRow() throws IOException, InterruptedException {
+        DictionaryIndex index = new DictionaryIndex(DictionaryFile.readText(new File("testDictionary").toPath()));
+        HangmanSimulator simulator = new HangmanSimulator(index, null, 7);
+        StringWriter output = new StringWriter();
+        HangmanSimulator.Tally total = simulator.run(Arrays.asList("frequency", "random", "oracle"),
+                Arrays.asList("greedy", "dubious"), 300, 2, output);
+        List<String> rows = Arrays.asList(output.toString().split(System.lineSeparator()));
+        assertEquals(1 + 3 * 2, rows.size());
+        assertTrue(rows.get(0).startsWith("bot,mode,length"));
+        assertEquals(3 * 2 * 300, total.games());
+        assertTrue(total.records() >= total.games());
+    }
+
+    /**
+     * Checks if run throws an IllegalArgumentException for an unknown bot
+     * @throws IOException if dictionary file does not exist
+     */
+    @Test
+    public void ifBotUnknownthenRunThrowsIllegalArgumentException() throws IOException {
+        DictionaryIndex index = new DictionaryIndex(DictionaryFile.readText(new File("testDictionary").toPath()));
+        HangmanSimulator simulator = new HangmanSimulator(index, null, 7);
+        assertThrows(IllegalArgumentException.class, () -> simulator.run(Arrays.asList("psychic"),
+                Arrays.asList("greedy"), 1, 1, new StringWriter()));
+    }
+
+}
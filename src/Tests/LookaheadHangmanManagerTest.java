@@ -0,0 +1,74 @@
+package Tests;
+
+import main.DubiousHangmanManager;
+import main.LookaheadHangmanManager;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test suite for LookaheadHangmanManager
+ */
+public class LookaheadHangmanManagerTest {
+
+    /**
+     * Reads a dictionary file the same way the other test suites do.
+     * @param dictionaryFile of dictionary to use
+     * @return words of the dictionary
+     * @throws FileNotFoundException if dictionary file does not exist
+     */
+    private List<String> read(String dictionaryFile) throws FileNotFoundException {
+        Scanner input = new Scanner(new File(dictionaryFile));
+        List<String> dictionary = new ArrayList<>();
+        while (input.hasNext())
+            dictionary.add(input.next().toLowerCase());
+        return dictionary;
+    }
+
+    /**
+     * Checks if constructor throws an IllegalArgumentException if depth is less than one
+     * @throws FileNotFoundException if dictionary file does not exist
+     */
+    @Test
+    public void ifDepthLessThanOnethenConstructorThrowsIllegalArgumentException() throws FileNotFoundException {
+        List<String> dictionary = read("testDictionary");
+        assertThrows(IllegalArgumentException.class,
+                () -> new LookaheadHangmanManager(dictionary, 4, 5, 0, Duration.ofMillis(10)));
+    }
+
+    /**
+     * Checks if a search with time to spare looks ahead as far as it was asked to
+     * @throws FileNotFoundException if dictionary file does not exist
+     */
+    @Test
+    public void ifBudgetIsGenerousthenSearchReachesDepth() throws FileNotFoundException {
+        LookaheadHangmanManager hangman = new LookaheadHangmanManager(read("testDictionary"), 4, 7, 3,
+                Duration.ofSeconds(10));
+        hangman.record('e');
+        assertEquals(3, hangman.searchedDepth());
+    }
+
+    /**
+     * Checks if a search without any budget falls back to the same families as DubiousHangmanManager
+     * @throws FileNotFoundException if dictionary file does not exist
+     */
+    @Test
+    public void ifBudgetIsZerothenRecordKeepsLargestFamily() throws FileNotFoundException {
+        List<String> dictionary = read("dictionary");
+        DubiousHangmanManager greedy = new DubiousHangmanManager(dictionary, 6, 10);
+        LookaheadHangmanManager lookahead = new LookaheadHangmanManager(dictionary, 6, 10, 3, Duration.ZERO);
+        for (char guess : "etaoinshr".toCharArray()) {
+            assertEquals(greedy.record(guess), lookahead.record(guess));
+            assertEquals(0, lookahead.searchedDepth());
+            assertEquals(greedy.words(), lookahead.words());
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+package Tests;
+
+import main.DictionaryIndex;
+import main.HangmanManager;
+import main.SessionRegistry;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test suite for SessionRegistry
+ */
+public class SessionRegistryTest {
+
+    /**
+     * Checks if games idle for the timeout expire and games used meanwhile stay, and if ended games are gone
+     */
+    @Test
+    public void ifIdleForTimeoutthenGameExpires() {
+        DictionaryIndex index = new DictionaryIndex(Arrays.asList("deal", "ally", "ibex", "cool"));
+        AtomicLong clock = new AtomicLong();
+        List<Long> expired = new ArrayList<>();
+        SessionRegistry registry = new SessionRegistry(Duration.ofSeconds(256), (id, game) -> expired.add(id),
+                clock::get);
+        long idle = registry.create(new HangmanManager(index, 4, 5));
+        long played = registry.create(new HangmanManager(index, 4, 5));
+        long ended = registry.create(new HangmanManager(index, 4, 5));
+        assertEquals(3, registry.size());
+        clock.set(Duration.ofSeconds(200).toNanos());
+        assertEquals(0, registry.expire());
+        registry.guess(played, 'e');
+        registry.end(ended, session -> null);
+        assertThrows(NoSuchElementException.class, () -> registry.guess(ended, 'a'));
+        clock.set(Duration.ofSeconds(300).toNanos());
+        assertEquals(1, registry.expire());
+        assertEquals(Arrays.asList(idle), expired);
+        assertThrows(NoSuchElementException.class, () -> registry.withSession(idle, session -> null));
+        assertEquals(1, (int) registry.withSession(played, session -> session.game().guesses().size()));
+        clock.set(Duration.ofSeconds(600).toNanos());
+        assertEquals(1, registry.expire());
+        assertEquals(0, registry.size());
+        assertTrue(registry.create(new HangmanManager(index, 4, 5)) > ended);
+    }
+}
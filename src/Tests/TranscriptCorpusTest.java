@@ -0,0 +1,75 @@
+package Tests;
+
+import main.DictionaryFile;
+import main.DictionaryIndex;
+import main.TranscriptCorpus;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test suite for TranscriptCorpus
+ */
+public class TranscriptCorpusTest {
+
+    /**
+     * Checks if every guess of the recorded corpus replays as recorded, with games created from plain collections of
+     * words and from the dictionary index
+     * @throws IOException if dictionary or corpus file does not exist
+     */
+    @Test
+    public void ifCorpusReplayedthenEveryGuessMatches() throws IOException {
+        DictionaryIndex index = new DictionaryIndex(DictionaryFile.readText(new File("dictionary").toPath()));
+        TranscriptCorpus corpus = new TranscriptCorpus(index);
+        for (String engine : new String[] {"indexed", "collection"}) {
+            try (BufferedReader input = new BufferedReader(new FileReader("transcripts"))) {
+                TranscriptCorpus.Replay replay = corpus.replay(input, engine, null, Writer.nullWriter());
+                assertEquals(1440, replay.transcripts());
+                assertTrue(replay.records() > replay.transcripts());
+                assertEquals(Collections.emptyList(), replay.mismatches());
+            }
+        }
+    }
+
+    /**
+     * Checks if a generated corpus replays as recorded, a changed guess is reported with its line, and a corpus of
+     * another dictionary is refused
+     * @throws IOException if dictionary file does not exist
+     */
+    @Test
+    public void ifTranscriptChangedthenReplayReportsMismatch() throws IOException {
+        DictionaryIndex index = new DictionaryIndex(DictionaryFile.readText(new File("testDictionary").toPath()));
+        TranscriptCorpus corpus = new TranscriptCorpus(index);
+        StringWriter output = new StringWriter();
+        assertEquals(2 * 2 * 3, corpus.generate(3, new int[] {2, 10}, 7, output));
+        String recorded = output.toString();
+        StringWriter report = new StringWriter();
+        TranscriptCorpus.Replay replay = corpus.replay(new BufferedReader(new StringReader(recorded)), "shared",
+                null, report);
+        assertEquals(12, replay.transcripts());
+        assertEquals(0, replay.mismatches().size());
+        assertEquals(1 + 12, report.toString().split(System.lineSeparator()).length);
+
+        String[] lines = recorded.split(System.lineSeparator());
+        String last = lines[lines.length - 1];
+        int matches = last.indexOf(',') + 1;
+        lines[lines.length - 1] = last.substring(0, matches) + "9" + last.substring(matches + 1);
+        replay = corpus.replay(new BufferedReader(new StringReader(String.join(System.lineSeparator(), lines))),
+                "indexed", null, Writer.nullWriter());
+        assertEquals(1, replay.mismatches().size());
+        assertTrue(replay.mismatches().get(0).startsWith("line " + lines.length + " guess 1"));
+
+        DictionaryIndex other = new DictionaryIndex(DictionaryFile.readText(new File("dictionary").toPath()));
+        assertThrows(IllegalArgumentException.class, () -> new TranscriptCorpus(other).replay(
+                new BufferedReader(new StringReader(recorded)), "indexed", null, Writer.nullWriter()));
+    }
+}
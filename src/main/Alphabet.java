@@ -0,0 +1,107 @@
+package main;
+
+import java.util.*;
+
+/**
+ * Immutable table of the letters of a dictionary that maps each of them to a dense index, 0 for the smallest letter up
+ * to size() - 1 for the largest. Letters are looked up through a two-level table of 256-letter pages, so finding the
+ * index of a letter is two array reads whatever the language, and sets of letters can be kept as bitsets of indexes.
+ */
+public final class Alphabet {
+
+    /**
+     * Bits of a letter that select its slot within a page.
+     */
+    private static final int PAGE_BITS = 8;
+    /**
+     * Letters per page.
+     */
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    /**
+     * Letters in ascending order, addressed by index.
+     */
+    private final char[] letters;
+    /**
+     * Index + 1 of every letter, 0 for letters not in the alphabet, by page and slot. Null pages hold no letters.
+     */
+    private final char[][] pages;
+
+    /**
+     * Creates new main.Alphabet.
+     *
+     * @param letters set of letters of the alphabet, by char value
+     */
+    Alphabet(BitSet letters) {
+        this.letters = new char[letters.cardinality()];
+        this.pages = new char[(Character.MAX_VALUE + 1) / PAGE_SIZE][];
+        int index = 0;
+        for (int letter = letters.nextSetBit(0); letter >= 0; letter = letters.nextSetBit(letter + 1)) {
+            if (this.pages[letter >>> PAGE_BITS] == null) this.pages[letter >>> PAGE_BITS] = new char[PAGE_SIZE];
+            this.pages[letter >>> PAGE_BITS][letter & (PAGE_SIZE - 1)] = (char) (index + 1);
+            this.letters[index++] = (char) letter;
+        }
+    }
+
+    /**
+     * Creates the alphabet of some words.
+     *
+     * @param words to take the letters of
+     * @return alphabet of every letter found in the words
+     */
+    static Alphabet of(Iterable<? extends CharSequence> words) {
+        BitSet letters = new BitSet();
+        for (CharSequence word : words) {
+            for (int i = 0; i < word.length(); i++) {
+                letters.set(word.charAt(i));
+            }
+        }
+        return new Alphabet(letters);
+    }
+
+    /**
+     * Finds the index of a letter.
+     *
+     * @param letter to look up
+     * @return index of the letter, -1 if it is not in the alphabet
+     */
+    public int indexOf(char letter) {
+        char[] page = this.pages[letter >>> PAGE_BITS];
+        return page == null ? -1 : page[letter & (PAGE_SIZE - 1)] - 1;
+    }
+
+    /**
+     * Checks whether a letter is in the alphabet.
+     *
+     * @param letter to look up
+     * @return true if some word of the dictionary has the letter
+     */
+    public boolean contains(char letter) {
+        return indexOf(letter) >= 0;
+    }
+
+    /**
+     * 'Getter' for a letter.
+     *
+     * @param index of the letter
+     * @return letter at that index
+     * @throws IndexOutOfBoundsException if the index is negative or not less than size()
+     */
+    public char letter(int index) {
+        return this.letters[index];
+    }
+
+    /**
+     * 'Getter' for the alphabet size.
+     *
+     * @return number of letters
+     */
+    public int size() {
+        return this.letters.length;
+    }
+
+    @Override
+    public String toString() {
+        return new String(this.letters);
+    }
+}
@@ -0,0 +1,340 @@
+package main;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Compact binary dictionary format and the tool that produces it from a plain-text dictionary.
+ *
+ * The file starts with a header of four ints: a magic number, the format version, the width in bytes of each
+ * character (1 for ISO-8859-1, 2 for UTF-16) and the number of length buckets. An offset table follows with an
+ * (offset, count) pair of ints for every length, then the alphabet as the number of letters followed by the letters
+ * in ascending order, two bytes each, then the words themselves. Every word in a bucket has the same length, so a
+ * bucket is stored as its sorted words packed back to back without separators.
+ *
+ * Loading a file maps it with FileChannel.map and reads only the offset table and the alphabet. A bucket is decoded
+ * into Strings the first time a game asks for its length, so the rest of the dictionary is never tokenized or
+ * allocated, nor even paged in.
+ *
+ * Plain-text dictionaries too large to hold in memory can be streamed instead: streamText reads the file in fixed
+ * size chunks through a FileChannel and keeps only the distinct words of one length, so memory grows with that bucket
+ * rather than with the file.
+ */
+public final class DictionaryFile {
+
+    /**
+     * Marks the start of a dictionary file, "HDIC" in ASCII.
+     */
+    static final int MAGIC = 0x48444943;
+    /**
+     * Version of the format written by this class.
+     */
+    static final int VERSION = 2;
+    /**
+     * Size in bytes of the fixed part of the header.
+     */
+    private static final int HEADER_SIZE = 4 * Integer.BYTES;
+    /**
+     * Size in bytes of the chunks a plain-text dictionary is streamed in.
+     */
+    static final int CHUNK_SIZE = 1 << 16;
+
+    /**
+     * Not to be instantiated.
+     */
+    private DictionaryFile() {
+    }
+
+    /**
+     * Converts a plain-text dictionary into the binary format.
+     *
+     * @param args path of the plain-text dictionary and path of the binary file to write
+     * @throws IOException if either file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: java main.DictionaryFile <dictionary> <output>");
+            return;
+        }
+        DictionaryIndex index = new DictionaryIndex(readText(Paths.get(args[0])));
+        write(index, Paths.get(args[1]));
+        System.out.println("Wrote " + index.size() + " words to " + args[1]);
+    }
+
+    /**
+     * Loads a dictionary in either format, mapping it if it is a binary dictionary and reading it as plain text
+     * otherwise.
+     *
+     * @param path of the dictionary
+     * @return index of the dictionary
+     * @throws IOException if the dictionary cannot be read
+     */
+    public static DictionaryIndex load(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+            if (Files.size(path) >= HEADER_SIZE && in.readInt() == MAGIC) {
+                return map(path);
+            }
+        }
+        return new DictionaryIndex(readText(path));
+    }
+
+    /**
+     * Reads a plain-text dictionary of whitespace separated UTF-8 words, lower-casing every word as readBucket does,
+     * so both read the same words whatever the default charset and locale.
+     *
+     * @param path of the plain-text dictionary
+     * @return words in file order
+     * @throws FileNotFoundException if the dictionary does not exist
+     */
+    public static List<String> readText(Path path) throws FileNotFoundException {
+        Scanner input = new Scanner(new InputStreamReader(new FileInputStream(path.toFile()), StandardCharsets.UTF_8));
+        List<String> dictionary = new ArrayList<>();
+        while (input.hasNext())
+            dictionary.add(input.next().toLowerCase(Locale.ROOT));
+        input.close();
+        return dictionary;
+    }
+
+    /**
+     * Streams a plain-text dictionary of whitespace separated UTF-8 words into an index holding only the words of
+     * one length.
+     *
+     * @param path of the plain-text dictionary
+     * @param length of the words to keep
+     * @return index whose only non-empty bucket is the words of that length
+     * @throws IOException if the dictionary cannot be read
+     * @throws IllegalArgumentException if length is negative
+     */
+    public static DictionaryIndex streamText(Path path, int length) throws IOException {
+        String[] bucket = readBucket(path, length);
+        int[] counts = new int[length + 1];
+        counts[length] = bucket.length;
+        return new DictionaryIndex(counts, ignored -> bucket, Alphabet.of(Arrays.asList(bucket)));
+    }
+
+    /**
+     * Streams a plain-text dictionary of whitespace separated UTF-8 words, lower-casing them and keeping the
+     * distinct words of one length. Words made of ASCII letters only are measured before they are turned into
+     * Strings, so words of other lengths cost no allocation.
+     *
+     * @param path of the plain-text dictionary
+     * @param length of the words to keep
+     * @return sorted, duplicate free words of that length
+     * @throws IOException if the dictionary cannot be read
+     * @throws IllegalArgumentException if length is negative
+     */
+    public static String[] readBucket(Path path, int length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException();
+        }
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        ByteBuffer bytes = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        CharBuffer chars = CharBuffer.allocate(CHUNK_SIZE);
+        Set<String> bucket = new HashSet<>();
+        StringBuilder word = new StringBuilder();
+        boolean ascii = true;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            boolean end = false;
+            while (!end) {
+                end = channel.read(bytes) < 0;
+                bytes.flip();
+                decoder.decode(bytes, chars, end);
+                if (end) {
+                    decoder.flush(chars);
+                }
+                bytes.compact();
+                chars.flip();
+                while (chars.hasRemaining()) {
+                    char letter = chars.get();
+                    if (!Character.isWhitespace(letter)) {
+                        if (letter >= 0x80) {
+                            ascii = false;
+                        }
+                        if (!ascii || word.length() <= length) {
+                            word.append(letter);
+                        }
+                    } else if (word.length() > 0) {
+                        keep(word, ascii, length, bucket);
+                        word.setLength(0);
+                        ascii = true;
+                    }
+                }
+                chars.clear();
+            }
+        }
+        if (word.length() > 0) {
+            keep(word, ascii, length, bucket);
+        }
+        String[] words = bucket.toArray(new String[0]);
+        Arrays.sort(words);
+        return words;
+    }
+
+    /**
+     * 'Helper' for readBucket that lower-cases a word and keeps it if it has the length. Words outside ASCII are
+     * measured after lower-casing, which may change their length.
+     *
+     * @param word as read, ASCII words cut off one letter past the length
+     * @param ascii whether the word is ASCII only
+     * @param length of the words to keep
+     * @param bucket of words kept
+     */
+    private static void keep(StringBuilder word, boolean ascii, int length, Set<String> bucket) {
+        if (ascii) {
+            if (word.length() == length) {
+                for (int i = 0; i < length; i++) {
+                    char letter = word.charAt(i);
+                    if (letter >= 'A' && letter <= 'Z') word.setCharAt(i, (char) (letter + ('a' - 'A')));
+                }
+                bucket.add(word.toString());
+            }
+        } else {
+            String lower = word.toString().toLowerCase(Locale.ROOT);
+            if (lower.length() == length) {
+                bucket.add(lower);
+            }
+        }
+    }
+
+    /**
+     * Writes a dictionary index in the binary format.
+     *
+     * @param index to write
+     * @param path of the binary file
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(DictionaryIndex index, Path path) throws IOException {
+        int buckets = index.maxLength() + 1;
+        int width = charWidth(index);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(width);
+            out.writeInt(buckets);
+            Alphabet alphabet = index.alphabet();
+            long offset = HEADER_SIZE + (long) buckets * 2 * Integer.BYTES + Integer.BYTES
+                    + (long) alphabet.size() * Character.BYTES;
+            for (int length = 0; length < buckets; length++) {
+                out.writeInt((int) offset);
+                out.writeInt(index.count(length));
+                offset += (long) index.count(length) * length * width;
+            }
+            if (offset > Integer.MAX_VALUE) {
+                throw new IOException("Dictionary too large for the binary format");
+            }
+            out.writeInt(alphabet.size());
+            for (int letter = 0; letter < alphabet.size(); letter++) {
+                out.writeChar(alphabet.letter(letter));
+            }
+            for (int length = 0; length < buckets; length++) {
+                for (String word : index.words(length)) {
+                    for (int i = 0; i < length; i++) {
+                        if (width == 1) {
+                            out.writeByte(word.charAt(i));
+                        } else {
+                            out.writeChar(word.charAt(i));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 'Helper' for write that picks the narrowest character width able to hold every word.
+     *
+     * @param index to write
+     * @return 1 if every character fits into ISO-8859-1, 2 otherwise
+     */
+    private static int charWidth(DictionaryIndex index) {
+        for (int length = 0; length <= index.maxLength(); length++) {
+            for (String word : index.words(length)) {
+                for (int i = 0; i < length; i++) {
+                    if (word.charAt(i) > 0xFF) return 2;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Maps a binary dictionary into memory as a dictionary index. Only the header, offset table and alphabet are
+     * read.
+     *
+     * @param path of the binary file
+     * @return index whose buckets are decoded from the mapping on first use
+     * @throws IOException if the file cannot be read or is not a dictionary of a supported version
+     */
+    public static DictionaryIndex map(Path path) throws IOException {
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (data.limit() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+            throw new IOException("Not a dictionary file: " + path);
+        } else if (data.getInt(4) != VERSION) {
+            throw new IOException("Unsupported dictionary version " + data.getInt(4) + ": " + path);
+        }
+        int width = data.getInt(8);
+        int buckets = data.getInt(12);
+        if ((width != 1 && width != 2) || buckets < 0
+                || HEADER_SIZE + (long) buckets * 2 * Integer.BYTES > data.limit()) {
+            throw new IOException("Corrupt dictionary header: " + path);
+        }
+        int[] offsets = new int[buckets];
+        int[] counts = new int[buckets];
+        for (int length = 0; length < buckets; length++) {
+            offsets[length] = data.getInt(HEADER_SIZE + length * 2 * Integer.BYTES);
+            counts[length] = data.getInt(HEADER_SIZE + length * 2 * Integer.BYTES + Integer.BYTES);
+            if (offsets[length] < 0 || counts[length] < 0
+                    || offsets[length] + (long) counts[length] * length * width > data.limit()) {
+                throw new IOException("Corrupt dictionary offset table: " + path);
+            }
+        }
+        int table = HEADER_SIZE + buckets * 2 * Integer.BYTES;
+        if (table + Integer.BYTES > data.limit() || data.getInt(table) < 0
+                || table + Integer.BYTES + (long) data.getInt(table) * Character.BYTES > data.limit()) {
+            throw new IOException("Corrupt dictionary alphabet: " + path);
+        }
+        BitSet letters = new BitSet();
+        for (int letter = 0; letter < data.getInt(table); letter++) {
+            letters.set(data.getChar(table + Integer.BYTES + letter * Character.BYTES));
+        }
+        return new DictionaryIndex(counts, length -> decode(data, width, offsets[length], counts[length], length),
+                new Alphabet(letters));
+    }
+
+    /**
+     * 'Helper' for map that decodes one bucket of the mapping into Strings.
+     *
+     * @param data mapped file
+     * @param width of a character in bytes
+     * @param offset of the bucket in the file
+     * @param count of words in the bucket
+     * @param length of each word in the bucket
+     * @return sorted words of the bucket
+     */
+    private static String[] decode(ByteBuffer data, int width, int offset, int count, int length) {
+        String[] words = new String[count];
+        if (width == 1) {
+            byte[] bytes = new byte[count * length];
+            data.get(offset, bytes);
+            for (int i = 0; i < count; i++) {
+                words[i] = new String(bytes, i * length, length, StandardCharsets.ISO_8859_1);
+            }
+        } else {
+            char[] chars = new char[count * length];
+            data.slice(offset, chars.length * Character.BYTES).asCharBuffer().get(chars);
+            for (int i = 0; i < count; i++) {
+                words[i] = new String(chars, i * length, length);
+            }
+        }
+        return words;
+    }
+}
@@ -0,0 +1,217 @@
+package main;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+/**
+ * Immutable index over a dictionary that groups its words by length. Each length bucket is sorted and free of
+ * duplicates, so it is built once and shared by every main.HangmanManager created from it.
+ */
+public final class DictionaryIndex {
+
+    /**
+     * Sorted words of each length, indexed by length. Null entries have not been loaded yet.
+     */
+    private final AtomicReferenceArray<SortedArraySet> buckets;
+    /**
+     * Per-position letter index of each length, indexed by length. Null entries have not been built yet.
+     */
+    private final AtomicReferenceArray<LetterIndex> letterIndexes;
+    /**
+     * Word graph of each length, indexed by length. Null entries have not been built yet.
+     */
+    private final AtomicReferenceArray<WordGraph> graphs;
+    /**
+     * Number of words of each length, indexed by length.
+     */
+    private final int[] counts;
+    /**
+     * Hash over the words of each length in order, indexed by length. Zero entries have not been computed yet;
+     * computing one twice from different threads gives the same value, so no synchronization is needed.
+     */
+    private final int[] fingerprints;
+    /**
+     * Letters of every word, whatever their length.
+     */
+    private final Alphabet alphabet;
+    /**
+     * Loads the sorted words of a length on first use, null if every bucket was built up front.
+     */
+    private final IntFunction<String[]> loader;
+    /**
+     * Total number of distinct words.
+     */
+    private final int size;
+
+    /**
+     * Creates new main.DictionaryIndex from a dictionary of words.
+     *
+     * @param dictionary of words to index
+     */
+    public DictionaryIndex(Collection<String> dictionary) {
+        List<TreeSet<String>> sorted = new ArrayList<>();
+        for (String word : dictionary) {
+            while (sorted.size() <= word.length()) {
+                sorted.add(new TreeSet<>());
+            }
+            sorted.get(word.length()).add(word);
+        }
+        this.buckets = new AtomicReferenceArray<>(sorted.size());
+        this.letterIndexes = new AtomicReferenceArray<>(sorted.size());
+        this.graphs = new AtomicReferenceArray<>(sorted.size());
+        this.counts = new int[sorted.size()];
+        this.fingerprints = new int[sorted.size()];
+        this.loader = null;
+        this.alphabet = Alphabet.of(dictionary);
+        int size = 0;
+        for (int length = 0; length < sorted.size(); length++) {
+            this.buckets.set(length, new SortedArraySet(sorted.get(length).toArray(new String[0])));
+            this.counts[length] = sorted.get(length).size();
+            size += this.counts[length];
+        }
+        this.size = size;
+    }
+
+    /**
+     * Creates new main.DictionaryIndex whose buckets are loaded lazily, such as from a mapped dictionary file.
+     *
+     * @param counts number of words of each length, indexed by length
+     * @param loader that returns the sorted, duplicate free words of a length
+     * @param alphabet letters of every word, whatever their length
+     */
+    DictionaryIndex(int[] counts, IntFunction<String[]> loader, Alphabet alphabet) {
+        this.buckets = new AtomicReferenceArray<>(counts.length);
+        this.letterIndexes = new AtomicReferenceArray<>(counts.length);
+        this.graphs = new AtomicReferenceArray<>(counts.length);
+        this.counts = counts.clone();
+        this.fingerprints = new int[counts.length];
+        this.loader = loader;
+        this.alphabet = alphabet;
+        int size = 0;
+        for (int count : counts) {
+            size += count;
+        }
+        this.size = size;
+    }
+
+    /**
+     * 'Getter' for the words of one length.
+     *
+     * @param length of words
+     * @return un-modifiable sorted set of the words of that length, empty if there are none
+     */
+    public SortedSet<String> words(int length) {
+        if (count(length) == 0) {
+            return Collections.emptySortedSet();
+        }
+        SortedArraySet bucket = this.buckets.get(length);
+        if (bucket == null) {
+            this.buckets.compareAndSet(length, null, new SortedArraySet(this.loader.apply(length)));
+            bucket = this.buckets.get(length);
+        }
+        return bucket;
+    }
+
+    /**
+     * 'Getter' for the per-position letter index of one length, built on first use.
+     *
+     * @param length of words
+     * @return letter index over the words of that length, null if there are none
+     */
+    LetterIndex letters(int length) {
+        if (count(length) == 0) {
+            return null;
+        }
+        LetterIndex letters = this.letterIndexes.get(length);
+        if (letters == null) {
+            this.letterIndexes.compareAndSet(length, null,
+                    new LetterIndex((SortedArraySet) words(length), length, this.alphabet));
+            letters = this.letterIndexes.get(length);
+        }
+        return letters;
+    }
+
+    /**
+     * 'Getter' for the word graph of one length, built on first use. A bucket that has not been loaded yet is read
+     * straight from the loader and not kept, so games that only use the graph never hold the words as Strings.
+     *
+     * @param length of words
+     * @return graph of the words of that length, null if there are none
+     */
+    WordGraph graph(int length) {
+        if (count(length) == 0) {
+            return null;
+        }
+        WordGraph graph = this.graphs.get(length);
+        if (graph == null) {
+            Iterable<String> words = this.buckets.get(length) != null || this.loader == null ? words(length)
+                    : Arrays.asList(this.loader.apply(length));
+            this.graphs.compareAndSet(length, null, new WordGraph(words, length, this.alphabet));
+            graph = this.graphs.get(length);
+        }
+        return graph;
+    }
+
+    /**
+     * 'Getter' for the fingerprint of one length, which identifies the words of that length and their ids. Files
+     * that refer to words by id, such as opening books and game snapshots, store it to detect a changed dictionary.
+     *
+     * @param length of words
+     * @return hash over the words of that length in order, 1 if there are none
+     */
+    int fingerprint(int length) {
+        if (count(length) == 0) {
+            return 1;
+        }
+        int fingerprint = this.fingerprints[length];
+        if (fingerprint == 0) {
+            fingerprint = 1;
+            for (String word : words(length)) {
+                fingerprint = 31 * fingerprint + word.hashCode();
+            }
+            this.fingerprints[length] = fingerprint;
+        }
+        return fingerprint;
+    }
+
+    /**
+     * 'Getter' for the alphabet.
+     *
+     * @return letters of every word of the dictionary, whatever their length
+     */
+    public Alphabet alphabet() {
+        return this.alphabet;
+    }
+
+    /**
+     * 'Getter' for the number of words of one length, without loading them.
+     *
+     * @param length of words
+     * @return number of words of that length
+     */
+    public int count(int length) {
+        if (length < 0 || length >= this.counts.length) {
+            return 0;
+        }
+        return this.counts[length];
+    }
+
+    /**
+     * 'Getter' for the longest word length.
+     *
+     * @return length of the longest word, 0 if the dictionary is empty
+     */
+    public int maxLength() {
+        return Math.max(this.counts.length - 1, 0);
+    }
+
+    /**
+     * 'Getter' for the dictionary size.
+     *
+     * @return number of distinct words in the dictionary
+     */
+    public int size() {
+        return this.size;
+    }
+}
@@ -0,0 +1,269 @@
+package main;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Versioned dictionaries that can be reloaded while games are being played, read-copy-update style.
+ *
+ * Every version is an immutable main.DictionarySnapshots.Snapshot of a dictionary index with its own partition cache
+ * and opening book. New games are started from current(), a single volatile read, and each game keeps the dictionary,
+ * cache and book it was started with for as long as it lives. reload builds the next version on a background thread
+ * and swaps it in with one volatile write, so guessing never waits for a reload, games started from current() start
+ * from the version in place until the new one is swapped in, and games already running go on with their own version.
+ * Only callers of awaitReload, such as main.HangmanMain before each game, wait for a reload under way to finish.
+ * Nothing else refers to an old version once it has been swapped out, so the garbage collector releases it as soon as
+ * the last game started from it ends.
+ */
+public final class DictionarySnapshots implements Closeable {
+
+    /**
+     * Builds a version of the dictionary.
+     */
+    @FunctionalInterface
+    public interface Loader {
+
+        /**
+         * Reads the dictionary files and builds a snapshot of them.
+         *
+         * @param version to give the snapshot
+         * @return new snapshot
+         * @throws IOException if the files cannot be read
+         */
+        Snapshot load(long version) throws IOException;
+    }
+
+    /**
+     * Builds the versions.
+     */
+    private final Loader loader;
+    /**
+     * Files the dictionary is read from, checked for changes by reloadIfModified.
+     */
+    private final List<Path> files;
+    /**
+     * Runs reloads one after the other.
+     */
+    private final ExecutorService reloader;
+    /**
+     * Version new games are started from.
+     */
+    private volatile Snapshot current;
+    /**
+     * Modification times of the files when the reload that built the current version started. Guarded by this.
+     */
+    private List<Long> modified;
+    /**
+     * Last reload started, null if there has been none. Guarded by this.
+     */
+    private CompletableFuture<Snapshot> pending;
+
+    /**
+     * Creates new main.DictionarySnapshots and loads version 1.
+     *
+     * @param loader that builds the versions
+     * @param files the loader reads, checked for changes by reloadIfModified
+     * @throws IOException if the first version cannot be loaded
+     */
+    public DictionarySnapshots(Loader loader, Path... files) throws IOException {
+        this.loader = loader;
+        this.files = List.of(files);
+        this.modified = modified();
+        this.current = loader.load(1);
+        this.reloader = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "dictionary-reloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates new main.DictionarySnapshots that always holds the same dictionary.
+     *
+     * @param dictionary index of words
+     * @param cacheEntries upper bound on the partitions cached for the dictionary
+     * @param book of the first guesses for the dictionary, null if there is none
+     * @return snapshots of that one version
+     */
+    public static DictionarySnapshots of(DictionaryIndex dictionary, int cacheEntries, OpeningBook book) {
+        try {
+            return new DictionarySnapshots(
+                    version -> new Snapshot(version, dictionary, new PartitionCache(dictionary, cacheEntries), book));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 'Getter' for the current version.
+     *
+     * @return snapshot new games should be started from
+     */
+    public Snapshot current() {
+        return this.current;
+    }
+
+    /**
+     * Loads the next version in the background and makes it current once built. Reloads run one at a time, in the
+     * order they were asked for. The current version stays in place if loading fails, and the files are then taken
+     * as unchanged since the last reload that succeeded, so reloadIfModified tries again.
+     *
+     * @return future completed with the new version, or exceptionally if it cannot be loaded
+     */
+    public synchronized CompletableFuture<Snapshot> reload() {
+        // Times are read before the files are, so a change made while loading is picked up by the next check.
+        List<Long> modified = modified();
+        this.pending = CompletableFuture.supplyAsync(() -> {
+            try {
+                Snapshot next = this.loader.load(this.current.version + 1);
+                synchronized (this) {
+                    this.current = next;
+                    this.modified = modified;
+                }
+                return next;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, this.reloader);
+        return this.pending;
+    }
+
+    /**
+     * Starts a reload if any of the dictionary files changed since the version in place was loaded and no reload is
+     * under way. New games go on starting from the version in place until the reload finishes, see awaitReload.
+     *
+     * @return true if a reload was started
+     */
+    public synchronized boolean reloadIfModified() {
+        if ((this.pending != null && !this.pending.isDone()) || modified().equals(this.modified)) return false;
+        reload();
+        return true;
+    }
+
+    /**
+     * Waits for the last reload started, if any, to finish and then reads the current version, for callers that
+     * want the new words as soon as a change has been seen rather than after the reload in the background.
+     *
+     * @return snapshot new games should be started from, the version in place if the reload failed
+     */
+    public Snapshot awaitReload() {
+        CompletableFuture<Snapshot> pending;
+        synchronized (this) {
+            pending = this.pending;
+        }
+        if (pending != null) {
+            try {
+                pending.join();
+            } catch (CompletionException | CancellationException e) {
+                // The version in place stays current and the next check tries the reload again.
+            }
+        }
+        return this.current;
+    }
+
+    /**
+     * Stops the background thread. Reloads already started are still carried out.
+     */
+    @Override
+    public void close() {
+        this.reloader.shutdown();
+    }
+
+    /**
+     * 'Helper' that reads the modification times of the dictionary files.
+     *
+     * @return modification time of every file, 0 for files that do not exist
+     */
+    private List<Long> modified() {
+        List<Long> modified = new ArrayList<>(this.files.size());
+        for (Path file : this.files) {
+            try {
+                modified.add(Files.getLastModifiedTime(file).toMillis());
+            } catch (IOException e) {
+                modified.add(0L);
+            }
+        }
+        return modified;
+    }
+
+    /**
+     * Immutable version of the dictionary, along with the partition cache and opening book of its games.
+     */
+    public static final class Snapshot {
+
+        /**
+         * Version number, counting up from 1.
+         */
+        private final long version;
+        /**
+         * Index of the words.
+         */
+        private final DictionaryIndex dictionary;
+        /**
+         * Partition results shared by the games of this version, null if not shared.
+         */
+        private final PartitionCache cache;
+        /**
+         * Opening book of the dictionary, null if there is none.
+         */
+        private final OpeningBook book;
+
+        /**
+         * Creates new main.DictionarySnapshots.Snapshot.
+         *
+         * @param version number, counting up from 1
+         * @param dictionary index of the words
+         * @param cache of partition results for the dictionary, null if games do not share partitions
+         * @param book of the first guesses for the dictionary, null if there is none
+         * @throws IllegalArgumentException if the cache or book belongs to another dictionary
+         */
+        public Snapshot(long version, DictionaryIndex dictionary, PartitionCache cache, OpeningBook book) {
+            if ((cache != null && cache.dictionary() != dictionary)
+                    || (book != null && book.dictionary() != dictionary)) {
+                throw new IllegalArgumentException();
+            }
+            this.version = version;
+            this.dictionary = dictionary;
+            this.cache = cache;
+            this.book = book;
+        }
+
+        /**
+         * 'Getter' for the version.
+         *
+         * @return version number
+         */
+        public long version() {
+            return this.version;
+        }
+
+        /**
+         * 'Getter' for the dictionary.
+         *
+         * @return index of the words
+         */
+        public DictionaryIndex dictionary() {
+            return this.dictionary;
+        }
+
+        /**
+         * 'Getter' for the cache.
+         *
+         * @return partition results shared by the games of this version, null if not shared
+         */
+        public PartitionCache cache() {
+            return this.cache;
+        }
+
+        /**
+         * 'Getter' for the book.
+         *
+         * @return opening book of the dictionary, null if there is none
+         */
+        public OpeningBook book() {
+            return this.book;
+        }
+    }
+}
@@ -3,10 +3,15 @@ package main;
 import java.util.*;
 
 /**
- * Subclass of main.HangmanManager that makes the game more evil by forcing failure with one guess left.
+ * Subclass of main.HangmanManager that makes the game more evil by forcing failure with one guess left, through
+ * FamilyStrategy.forcedMissOnLastGuess.
  */
 public class DubiousHangmanManager extends HangmanManager {
 
+    /**
+     * Strategy every main.DubiousHangmanManager starts with.
+     */
+    static final FamilyStrategy FORCED_MISS = FamilyStrategy.forcedMissOnLastGuess(FamilyStrategy.LARGEST);
 
     /**
      * Creates new main.DubiousHangmanManager and calls parent constructor.
@@ -17,29 +22,84 @@ public class DubiousHangmanManager extends HangmanManager {
      */
     public DubiousHangmanManager (Collection<String> dictionary, int length, int guesses) {
         super(dictionary, length, guesses);
+        setStrategy(FORCED_MISS);
+    }
+
+    /**
+     * Creates new main.DubiousHangmanManager from a shared dictionary index and calls parent constructor.
+     *
+     * @param dictionary index of words to guess from
+     * @param length of word to guess
+     * @param guesses that player is granted
+     */
+    public DubiousHangmanManager (DictionaryIndex dictionary, int length, int guesses) {
+        super(dictionary, length, guesses);
+        setStrategy(FORCED_MISS);
+    }
+
+    /**
+     * Creates new main.DubiousHangmanManager from a shared dictionary index and partition cache and calls
+     * parent constructor.
+     *
+     * @param dictionary index of words to guess from
+     * @param length of word to guess
+     * @param guesses that player is granted
+     * @param cache of partition results for the dictionary, null to always partition
+     */
+    public DubiousHangmanManager (DictionaryIndex dictionary, int length, int guesses, PartitionCache cache) {
+        super(dictionary, length, guesses, cache);
+        setStrategy(FORCED_MISS);
+    }
+
+    /**
+     * Creates new main.DubiousHangmanManager from a shared dictionary index, partition cache and opening book
+     * and calls parent constructor.
+     *
+     * @param dictionary index of words to guess from
+     * @param length of word to guess
+     * @param guesses that player is granted
+     * @param cache of partition results for the dictionary, null to always partition
+     * @param book of the first guesses for the dictionary, null to partition from the first guess on
+     */
+    public DubiousHangmanManager (DictionaryIndex dictionary, int length, int guesses, PartitionCache cache,
+                                  OpeningBook book) {
+        super(dictionary, length, guesses, cache, book);
+        setStrategy(FORCED_MISS);
+    }
+
+    /**
+     * Creates new main.DubiousHangmanManager whose current words are already narrowed down to a family and calls
+     * parent constructor.
+     *
+     * @param dictionary index of words to guess from
+     * @param length of word to guess
+     * @param guesses that player is granted
+     * @param cache of partition results for the dictionary, null to always partition
+     * @param book of the first guesses for the dictionary, null to partition from the first guess on
+     * @param family current words, all from the dictionary bucket of that length
+     */
+    DubiousHangmanManager (DictionaryIndex dictionary, int length, int guesses, PartitionCache cache,
+                           OpeningBook book, SortedSet<String> family) {
+        super(dictionary, length, guesses, cache, book, family);
+        setStrategy(FORCED_MISS);
     }
 
     /**
-     * Auto-fails user if guesses left < 1 by setting the word list to the first word that does
-     * not include the user's guess.
+     * Auto-fails user if guesses left < 1: the forced miss strategy keeps the words without the user's guess, and
+     * once the miss ends the game the word list is set to the first of them.
      *
      * @param guess that user provided
      * @return number of times the user's guess matches the new pattern.
      */
     @Override
     public int record (char guess) {
-        String tempWord;
-        if (guessesLeft() == 1) {
-            for (String word : words()) {
-                tempWord = word;
-                if (!tempWord.contains(guess + "")) {
-                    this.words.clear();
-                    this.words.add(tempWord);
-                    break;
-                }
-            }
+        boolean lastGuess = guessesLeft() == 1;
+        int matches = super.record(guess);
+        if (lastGuess && matches == 0) {
+            keepOnly(this.words.iterator().next());
+            metrics().lastGuessForced();
         }
-        return super.record(guess);
+        return matches;
     }
 
     /**
@@ -0,0 +1,181 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressed table counting words per family, keyed by the primitive family keys of main.FamilyPartitioner.
+ */
+final class FamilyCounts {
+
+    /**
+     * Initial capacity of the table, must be a power of two.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Family keys of the table.
+     */
+    private long[] keys;
+    /**
+     * Family sizes of the table, a size of 0 marks an empty slot.
+     */
+    private int[] sizes;
+    /**
+     * Number of families in the table.
+     */
+    private int count;
+
+    /**
+     * Creates new empty main.FamilyCounts.
+     */
+    FamilyCounts() {
+        this.keys = new long[INITIAL_CAPACITY];
+        this.sizes = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Counts words into a family, growing the table as needed.
+     *
+     * @param key of the family
+     * @param words to add to the family, at least 1
+     */
+    void add(long key, int words) {
+        int slot = slotOf(key);
+        if (this.sizes[slot] == 0) {
+            this.keys[slot] = key;
+            this.count++;
+            if (this.count * 2 > this.sizes.length) {
+                this.sizes[slot] = words;
+                grow();
+                return;
+            }
+        }
+        this.sizes[slot] += words;
+    }
+
+    /**
+     * Adds every family of another table to this one.
+     *
+     * @param other table to merge in
+     */
+    void addAll(FamilyCounts other) {
+        for (int slot = 0; slot < other.sizes.length; slot++) {
+            if (other.sizes[slot] != 0) add(other.keys[slot], other.sizes[slot]);
+        }
+    }
+
+    /**
+     * Finds the largest family. Ties are broken the same way as a natural ordering over the families' pattern
+     * Strings: at the first position where two tied families differ, one shows the guess and the other shows '-',
+     * and the smaller of those two characters wins.
+     *
+     * @param guess that the families were counted for
+     * @return key of the largest family
+     * @throws IllegalStateException if the table is empty
+     */
+    long largest(char guess) {
+        if (this.count == 0) {
+            throw new IllegalStateException();
+        }
+        long best = 0;
+        int size = 0;
+        for (int slot = 0; slot < this.sizes.length; slot++) {
+            int candidate = this.sizes[slot];
+            if (candidate == 0) continue;
+            long key = this.keys[slot];
+            if (candidate > size || (candidate == size && winsTie(key, best, guess))) {
+                size = candidate;
+                best = key;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Breaks a tie between two families of the same size as described in largest.
+     *
+     * @param key of one family
+     * @param other key of the other family
+     * @param guess that the families were counted for
+     * @return true if the first family wins the tie
+     */
+    static boolean winsTie(long key, long other, char guess) {
+        return Long.compareUnsigned(key, other) < 0 != guess < '-';
+    }
+
+    /**
+     * Copies every family into dense arrays, in table order.
+     *
+     * @param keys to copy the keys into, at least families() long
+     * @param sizes to copy the sizes into, at least families() long
+     */
+    void copyTo(long[] keys, int[] sizes) {
+        int family = 0;
+        for (int slot = 0; slot < this.sizes.length; slot++) {
+            if (this.sizes[slot] == 0) continue;
+            keys[family] = this.keys[slot];
+            sizes[family++] = this.sizes[slot];
+        }
+    }
+
+    /**
+     * Size of a family.
+     *
+     * @param key of the family
+     * @return number of words in the family, 0 if there is no such family
+     */
+    int size(long key) {
+        return this.sizes[slotOf(key)];
+    }
+
+    /**
+     * Number of families.
+     *
+     * @return family count
+     */
+    int families() {
+        return this.count;
+    }
+
+    /**
+     * Forgets every family while keeping the allocated table.
+     */
+    void clear() {
+        if (this.count > 0) {
+            Arrays.fill(this.sizes, 0);
+        }
+        this.count = 0;
+    }
+
+    /**
+     * 'Helper' that finds the slot holding a key, or the empty slot it would be stored in.
+     *
+     * @param key of a family
+     * @return slot index
+     */
+    private int slotOf(long key) {
+        int mask = this.sizes.length - 1;
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        while (this.sizes[slot] != 0 && this.keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * 'Helper' that doubles the table and re-inserts its families.
+     */
+    private void grow() {
+        long[] oldKeys = this.keys;
+        int[] oldSizes = this.sizes;
+        this.keys = new long[oldKeys.length * 2];
+        this.sizes = new int[oldSizes.length * 2];
+        for (int i = 0; i < oldSizes.length; i++) {
+            if (oldSizes[i] != 0) {
+                int slot = slotOf(oldKeys[i]);
+                this.keys[slot] = oldKeys[i];
+                this.sizes[slot] = oldSizes[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package main;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Partition engine for main.HangmanManager. Splits the current word family into pattern families for a guess
+ * without building a pattern String or a word set for every family.
+ *
+ * Every word in the current family already shares the current pattern, so the only thing that can tell two words
+ * apart for a new guess is where the guess appears in them. Each word is therefore keyed by a position bitmask of
+ * its occurrences of the guess, with position 0 stored in the most significant bit of the word's length. Words are
+ * counted into buckets of an open-addressed table keyed by that mask.
+ *
+ * Families of at least parallelThreshold words are split into chunks across the common ForkJoinPool. Every chunk
+ * keys its own words and counts them into its own table, and the tables are merged before the largest family is
+ * chosen, so the result is the same as partitioning sequentially.
+ *
+ * Given main.WordColumns, the partitioner keys the family column by column instead, eight words per comparison, and
+ * narrows the columns alongside the family. Families large enough to be partitioned in parallel are still keyed in
+ * chunks, and the columns are loaded again from the next family. That is the default for games whose alphabet fits
+ * the columns, and can be turned off through the "hangman.columnar" system property, which leaves the character at a
+ * time scan above.
+ */
+class FamilyPartitioner {
+
+    /**
+     * Longest word that fits into a single primitive key.
+     */
+    static final int MAX_LENGTH = Long.SIZE;
+    /**
+     * Family size from which partitions run in parallel, configurable through the
+     * "hangman.parallelThreshold" system property.
+     */
+    static final int DEFAULT_PARALLEL_THRESHOLD = Integer.getInteger("hangman.parallelThreshold", 32768);
+    /**
+     * Whether partitioners key words through main.WordColumns where the alphabet allows, configurable through the
+     * "hangman.columnar" system property.
+     */
+    static final boolean COLUMNAR = Boolean.parseBoolean(System.getProperty("hangman.columnar", "true"));
+
+    /**
+     * Smallest chunk of words partitioned by one fork/join task.
+     */
+    private static final int MIN_CHUNK = 4096;
+
+    /**
+     * Key of each partitioned word, in the iteration order of the partitioned family.
+     */
+    private long[] wordKeys;
+    /**
+     * Words per family of the last partition.
+     */
+    private final FamilyCounts counts;
+    /**
+     * Family size from which partitions run in parallel.
+     */
+    private final int parallelThreshold;
+    /**
+     * Column-wise copy of the family, null to key words a character at a time.
+     */
+    private final WordColumns columns;
+
+    /**
+     * Creates new main.FamilyPartitioner that partitions in parallel from DEFAULT_PARALLEL_THRESHOLD words on.
+     *
+     * @param capacity expected number of words in the largest family that will be partitioned
+     */
+    FamilyPartitioner(int capacity) {
+        this(capacity, DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Creates new main.FamilyPartitioner.
+     *
+     * @param capacity expected number of words in the largest family that will be partitioned
+     * @param parallelThreshold family size from which partitions run in parallel
+     */
+    FamilyPartitioner(int capacity, int parallelThreshold) {
+        this.wordKeys = new long[Math.max(capacity, 1)];
+        this.counts = new FamilyCounts();
+        this.parallelThreshold = parallelThreshold;
+        this.columns = null;
+    }
+
+    /**
+     * Creates new main.FamilyPartitioner that keys words through columns if COLUMNAR is set and the alphabet fits
+     * them, and a character at a time otherwise.
+     *
+     * @param words first family that will be partitioned, all of the same length
+     * @param length of the words
+     * @param alphabet holding every letter of the words
+     */
+    FamilyPartitioner(Collection<String> words, int length, Alphabet alphabet) {
+        this.wordKeys = new long[Math.max(words.size(), 1)];
+        this.counts = new FamilyCounts();
+        this.parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+        this.columns = COLUMNAR && alphabet.size() <= WordColumns.MAX_LETTERS
+                ? new WordColumns(words, length, alphabet) : null;
+    }
+
+    /**
+     * Computes the key of a word for a guess.
+     *
+     * @param word to key
+     * @param guess that user provided
+     * @return position bitmask of the guess within the word
+     */
+    static long keyOf(CharSequence word, char guess) {
+        long key = 0;
+        int length = word.length();
+        for (int i = 0; i < length; i++) {
+            key <<= 1;
+            if (word.charAt(i) == guess) key |= 1;
+        }
+        return key;
+    }
+
+    /**
+     * Checks whether a position of a word of the given length is set in a key.
+     *
+     * @param key of a family
+     * @param length of the words in the family
+     * @param position within the word
+     * @return true if the guess appears at that position for the family
+     */
+    static boolean revealed(long key, int length, int position) {
+        return (key >>> (length - 1 - position) & 1L) != 0;
+    }
+
+    /**
+     * Reveals the positions of a family's key in a pattern.
+     *
+     * @param pattern before the guess, without spaces
+     * @param key of the family
+     * @param guess that user provided
+     * @return pattern with the guess at every position set in the key
+     */
+    static String reveal(String pattern, long key, char guess) {
+        char[] variant = pattern.toCharArray();
+        for (int i = 0; i < variant.length; i++) {
+            if (revealed(key, variant.length, i)) variant[i] = guess;
+        }
+        return new String(variant);
+    }
+
+    /**
+     * Splits the given words into families for a guess. Replaces the result of any previous partition.
+     *
+     * @param words current family, all of the same length
+     * @param guess that user provided
+     */
+    void partition(Collection<String> words, char guess) {
+        this.counts.clear();
+        if (this.wordKeys.length < words.size()) {
+            this.wordKeys = new long[words.size()];
+        }
+        if (words.size() >= this.parallelThreshold && ForkJoinPool.getCommonPoolParallelism() > 1) {
+            if (this.columns != null) this.columns.invalidate();
+            String[] array = words.toArray(new String[0]);
+            int chunk = Math.max(MIN_CHUNK, array.length / (ForkJoinPool.getCommonPoolParallelism() * 4));
+            this.counts.addAll(ForkJoinPool.commonPool().invoke(new Chunk(array, guess, 0, array.length, chunk)));
+        } else if (this.columns != null) {
+            this.columns.key(words, guess, this.wordKeys);
+            for (int i = 0; i < words.size(); i++) {
+                this.counts.add(this.wordKeys[i], 1);
+            }
+        } else {
+            int i = 0;
+            for (String word : words) {
+                long key = keyOf(word, guess);
+                this.wordKeys[i++] = key;
+                this.counts.add(key, 1);
+            }
+        }
+    }
+
+    /**
+     * Finds the largest family of the last partition, breaking ties as described in FamilyCounts.largest.
+     *
+     * @param guess that the last partition was made for
+     * @return key of the largest family
+     * @throws IllegalStateException if the last partition was empty
+     */
+    long largest(char guess) {
+        return this.counts.largest(guess);
+    }
+
+    /**
+     * Size of a family of the last partition.
+     *
+     * @param key of the family
+     * @return number of words in the family, 0 if there is no such family
+     */
+    int size(long key) {
+        return this.counts.size(key);
+    }
+
+    /**
+     * 'Getter' for the families of the last partition.
+     *
+     * @return words per family of the last partition
+     */
+    FamilyCounts counts() {
+        return this.counts;
+    }
+
+    /**
+     * Number of families in the last partition.
+     *
+     * @return family count
+     */
+    int families() {
+        return this.counts.families();
+    }
+
+    /**
+     * Checks whether a word of the last partition belongs to a family.
+     *
+     * @param index of the word in the iteration order of the partitioned family
+     * @param key of the family
+     * @return true if the word is in the family
+     */
+    boolean inFamily(int index, long key) {
+        return this.wordKeys[index] == key;
+    }
+
+    /**
+     * Narrows the columns, if any, down to a family of the last partition. Called once the caller has removed the
+     * words that are not in the family.
+     *
+     * @param key of the family kept
+     */
+    void narrow(long key) {
+        if (this.columns != null) this.columns.narrow(this.wordKeys, key);
+    }
+
+    /**
+     * Fork/join task that keys a range of words into wordKeys and counts them into its own table.
+     */
+    private final class Chunk extends RecursiveTask<FamilyCounts> {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Words being partitioned.
+         */
+        private final String[] words;
+        /**
+         * Guess the words are partitioned for.
+         */
+        private final char guess;
+        /**
+         * First index of the range, inclusive.
+         */
+        private final int from;
+        /**
+         * Last index of the range, exclusive.
+         */
+        private final int to;
+        /**
+         * Largest range partitioned without splitting.
+         */
+        private final int chunk;
+
+        /**
+         * Creates new main.FamilyPartitioner.Chunk.
+         *
+         * @param words being partitioned
+         * @param guess the words are partitioned for
+         * @param from first index, inclusive
+         * @param to last index, exclusive
+         * @param chunk largest range partitioned without splitting
+         */
+        Chunk(String[] words, char guess, int from, int to, int chunk) {
+            this.words = words;
+            this.guess = guess;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected FamilyCounts compute() {
+            if (this.to - this.from > this.chunk) {
+                int middle = (this.from + this.to) >>> 1;
+                Chunk right = new Chunk(this.words, this.guess, middle, this.to, this.chunk);
+                right.fork();
+                FamilyCounts counts = new Chunk(this.words, this.guess, this.from, middle, this.chunk).compute();
+                counts.addAll(right.join());
+                return counts;
+            }
+            FamilyCounts counts = new FamilyCounts();
+            for (int i = this.from; i < this.to; i++) {
+                long key = keyOf(this.words[i], this.guess);
+                wordKeys[i] = key;
+                counts.add(key, 1);
+            }
+            return counts;
+        }
+    }
+}
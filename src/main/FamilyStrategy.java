@@ -0,0 +1,128 @@
+package main;
+
+/**
+ * Strategy that picks the family a game narrows its words down to once they have been partitioned for a guess. A
+ * strategy only sees the main.Partition summary, family keys, sizes and hits, so it never needs another pass over the
+ * words.
+ *
+ * Games look the family of a guess up in a main.PartitionCache or main.OpeningBook instead of partitioning when they
+ * have one, and those only hold the largest families, so they are only used while keepsLargest says the strategy
+ * would pick the largest family anyway.
+ */
+public interface FamilyStrategy {
+
+    /**
+     * Strategy of main.HangmanManager: keeps the largest family.
+     */
+    FamilyStrategy LARGEST = new FamilyStrategy() {
+        @Override
+        public long choose(Partition partition) {
+            return partition.largest();
+        }
+
+        @Override
+        public boolean keepsLargest(int guessesLeft) {
+            return true;
+        }
+    };
+
+    /**
+     * Picks a family of a partition.
+     *
+     * @param partition of the current words for a guess, with at least one family
+     * @return key of the family to keep
+     */
+    long choose(Partition partition);
+
+    /**
+     * Tells whether the strategy picks the largest family of every partition made with some guesses left, so that
+     * stored largest families may stand in for partitioning. False unless overridden.
+     *
+     * @param guessesLeft wrong guesses the player has left before the guess
+     * @return true if the strategy would keep the largest family
+     */
+    default boolean keepsLargest(int guessesLeft) {
+        return false;
+    }
+
+    /**
+     * Creates a strategy that keeps the family holding the most entropy, log2 of its size, counting a miss as one more
+     * bit since it costs the player a guess. It keeps a miss over a larger family up to twice its size.
+     *
+     * @return entropy strategy
+     */
+    static FamilyStrategy maxEntropy() {
+        return partition -> {
+            int best = 0;
+            double bestBits = Double.NEGATIVE_INFINITY;
+            for (int family = 0; family < partition.families(); family++) {
+                double bits = Math.log(partition.size(family)) / Math.log(2) + (partition.hits(family) == 0 ? 1 : 0);
+                if (bits > bestBits || (bits == bestBits && partition.prefers(family, best))) {
+                    best = family;
+                    bestBits = bits;
+                }
+            }
+            return partition.key(best);
+        };
+    }
+
+    /**
+     * Creates a strategy that keeps the family revealing the fewest positions, a miss whenever some word lacks the
+     * guess, and the largest of those.
+     *
+     * @return fewest revealed strategy
+     */
+    static FamilyStrategy fewestRevealed() {
+        return partition -> {
+            int best = 0;
+            for (int family = 1; family < partition.families(); family++) {
+                int hits = partition.hits(family);
+                if (hits < partition.hits(best) || (hits == partition.hits(best) && partition.prefers(family, best))) {
+                    best = family;
+                }
+            }
+            return partition.key(best);
+        };
+    }
+
+    /**
+     * Creates a strategy that forces a miss on the player's last guess whenever some word lacks the guess, and
+     * otherwise picks as another strategy does. This is the rule of main.DubiousHangmanManager.
+     *
+     * @param otherwise strategy used before the last guess, or when every word has the guess
+     * @return forced miss strategy
+     */
+    static FamilyStrategy forcedMissOnLastGuess(FamilyStrategy otherwise) {
+        return new FamilyStrategy() {
+            @Override
+            public long choose(Partition partition) {
+                return partition.guessesLeft() == 1 && partition.sizeOf(0) > 0 ? 0 : otherwise.choose(partition);
+            }
+
+            @Override
+            public boolean keepsLargest(int guessesLeft) {
+                return guessesLeft > 1 && otherwise.keepsLargest(guessesLeft);
+            }
+        };
+    }
+
+    /**
+     * Finds a strategy by name.
+     *
+     * @param name largest, entropy or fewest
+     * @return strategy with that name
+     * @throws IllegalArgumentException if there is no strategy with that name
+     */
+    static FamilyStrategy named(String name) {
+        switch (name) {
+            case "largest":
+                return LARGEST;
+            case "entropy":
+                return maxEntropy();
+            case "fewest":
+                return fewestRevealed();
+            default:
+                throw new IllegalArgumentException(name);
+        }
+    }
+}
@@ -0,0 +1,718 @@
+package main;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Append-only event log of games. Since record is a deterministic state transition, a game is fully described by the
+ * game it started as and the letters guessed since, so that is all the log keeps: a checkpoint, in the format of
+ * main.GameSnapshot, when a game starts, one event per guess and per undo, and an event when it ends. Every few
+ * guesses another checkpoint is written, so rebuilding a game never replays more than a few guesses. Lookahead games,
+ * whose choices depend on how much time their search gets, are checkpointed after every guess instead of replayed.
+ *
+ * Events are collected into batches and written to the file when a batch fills up or on flush, so a guess costs a
+ * buffer append rather than a write. Opening an existing log reads every event back a batch at a time, dropping a last
+ * event that was only partly written, and recover rebuilds every game that had not ended. Ended games, undone guesses
+ * and the checkpoints they outdated stay in the file until then, so once the events of the games that have not ended
+ * take less than half of it, open rewrites the log with those alone and moves the new file over the old one. Opening
+ * after a crash therefore reads little more than the live games, whatever the history of the log.
+ */
+public final class GameLog implements Closeable {
+
+    /**
+     * "HLOG", first bytes of every log.
+     */
+    static final int MAGIC = 0x484C4F47;
+    /**
+     * Version of the log format.
+     */
+    static final int VERSION = 1;
+    /**
+     * Guesses between checkpoints of a game when no interval is given.
+     */
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 4;
+    /**
+     * Size of a batch of events.
+     */
+    private static final int BATCH_BYTES = 1 << 16;
+    /**
+     * Bytes of the file header.
+     */
+    private static final int HEADER_BYTES = Integer.BYTES * 2;
+    /**
+     * Event holding the snapshot of a game after some number of guesses.
+     */
+    private static final int CHECKPOINT = 0;
+    /**
+     * Event holding a guess.
+     */
+    private static final int GUESS = 1;
+    /**
+     * Event taking back the last guess.
+     */
+    private static final int UNDO = 2;
+    /**
+     * Event ending a game.
+     */
+    private static final int END = 3;
+
+    /**
+     * Dictionary the games are played with.
+     */
+    private final DictionaryIndex dictionary;
+    /**
+     * Partition results shared by rebuilt games, null if not shared.
+     */
+    private final PartitionCache cache;
+    /**
+     * Opening book used by rebuilt games, null if not used.
+     */
+    private final OpeningBook book;
+    /**
+     * Guesses between checkpoints of a game.
+     */
+    private final int checkpointInterval;
+    /**
+     * Log file.
+     */
+    private final FileChannel channel;
+    /**
+     * Events not written to the file yet.
+     */
+    private final ByteBuffer batch;
+    /**
+     * History of every game that has not ended, by id.
+     */
+    private final Map<Long, History> histories;
+
+    /**
+     * Creates new main.GameLog.
+     *
+     * @param dictionary the games are played with
+     * @param cache of partition results for rebuilt games, null to always partition
+     * @param book of the first guesses for rebuilt games, null to partition from the first guess on
+     * @param checkpointInterval guesses between checkpoints of a game
+     * @param channel of the log file, positioned at its end
+     * @param histories of the games that have not ended
+     */
+    private GameLog(DictionaryIndex dictionary, PartitionCache cache, OpeningBook book, int checkpointInterval,
+                    FileChannel channel, Map<Long, History> histories) {
+        this.dictionary = dictionary;
+        this.cache = cache;
+        this.book = book;
+        this.checkpointInterval = checkpointInterval;
+        this.channel = channel;
+        this.batch = ByteBuffer.allocate(BATCH_BYTES);
+        this.histories = histories;
+    }
+
+    /**
+     * Opens a log, creating it if it does not exist and reading back the history of its games otherwise.
+     *
+     * @param path of the log file
+     * @param dictionary the games are played with
+     * @param cache of partition results for rebuilt games, null to always partition
+     * @param book of the first guesses for rebuilt games, null to partition from the first guess on
+     * @param checkpointInterval guesses between checkpoints of a game
+     * @return log positioned to append after its last complete event
+     * @throws IOException if the file cannot be read or written or is not a game log
+     * @throws IllegalArgumentException if checkpointInterval is less than 1
+     */
+    public static GameLog open(Path path, DictionaryIndex dictionary, PartitionCache cache, OpeningBook book,
+                               int checkpointInterval) throws IOException {
+        if (checkpointInterval < 1) {
+            throw new IllegalArgumentException();
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            Map<Long, History> histories = new HashMap<>();
+            if (channel.size() == 0) {
+                writeHeader(channel);
+            } else {
+                ByteBuffer data = ByteBuffer.allocate(BATCH_BYTES);
+                data.flip();
+                if (!fill(channel, data, HEADER_BYTES) || data.getInt() != MAGIC || data.getInt() != VERSION) {
+                    throw new IOException("Not a game log: " + path);
+                }
+                long end = read(channel, data, histories);
+                channel.truncate(end);
+                long live = 0;
+                for (History history : histories.values()) {
+                    live += history.bytes();
+                }
+                if (live * 2 < end - HEADER_BYTES) {
+                    channel.close();
+                    compact(path, histories);
+                    channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                }
+            }
+            channel.position(channel.size());
+            return new GameLog(dictionary, cache, book, checkpointInterval, channel, histories);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Rebuilds every game of the log that has not ended. A game whose checkpoints were taken against other words of
+     * its length, such as one started before the dictionary was reloaded with changes to that length, cannot go on
+     * and is ended in the log instead.
+     *
+     * @return games by id, in the state of their last logged guess
+     * @throws IllegalArgumentException if a checkpoint is malformed or a guess cannot be replayed
+     * @throws UncheckedIOException if the end of a game that cannot be rebuilt cannot be written
+     */
+    public synchronized Map<Long, HangmanManager> recover() {
+        Map<Long, HangmanManager> games = new HashMap<>();
+        Iterator<Map.Entry<Long, History>> entries = this.histories.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Long, History> entry = entries.next();
+            History history = entry.getValue();
+            if (GameSnapshot.matches(history.checkpoints.get(0).snapshot, dictionaryOf(history))) {
+                games.put(entry.getKey(), rebuild(history, history.guesses.length()));
+            } else {
+                entries.remove();
+                append(END, entry.getKey(), null, 0);
+            }
+        }
+        return games;
+    }
+
+    /**
+     * Logs the start of a game.
+     *
+     * @param id of the game, not used by any game of the log that has not ended
+     * @param game that has not been guessed at yet
+     * @throws IllegalArgumentException if the id is in use or the game's words are not from the dictionary
+     * @throws UncheckedIOException if the event cannot be written
+     */
+    public void start(long id, HangmanManager game) {
+        History history = new History();
+        if (game.dictionary() != null && game.dictionary() != this.dictionary) {
+            history.dictionary = game.dictionary();
+            history.cache = game.cache();
+            history.book = game.book();
+        }
+        byte[] snapshot = GameSnapshot.save(game, dictionaryOf(history));
+        synchronized (this) {
+            if (this.histories.containsKey(id)) {
+                throw new IllegalArgumentException();
+            }
+            history.checkpoint(0, snapshot);
+            this.histories.put(id, history);
+            append(CHECKPOINT, id, snapshot, 0);
+        }
+    }
+
+    /**
+     * Records a guess on a game and logs it, along with a checkpoint when one is due. The caller must not record
+     * on the same game from several threads at once.
+     *
+     * @param id of the game
+     * @param game with that id
+     * @param guess that user provided
+     * @return number of character matches, as returned by record
+     * @throws NoSuchElementException if there is no such game in the log
+     * @throws IllegalStateException if record does
+     * @throws IllegalArgumentException if record does
+     * @throws UncheckedIOException if the event cannot be written
+     */
+    public int record(long id, HangmanManager game, char guess) {
+        History history = history(id);
+        int matches = game.record(guess);
+        int guesses;
+        synchronized (this) {
+            history.guesses.append(guess);
+            guesses = history.guesses.length();
+            append(GUESS, id, null, guess);
+        }
+        if (game instanceof LookaheadHangmanManager || guesses % this.checkpointInterval == 0) {
+            byte[] snapshot = GameSnapshot.save(game, dictionaryOf(history));
+            synchronized (this) {
+                history.checkpoint(guesses, snapshot);
+                append(CHECKPOINT, id, snapshot, guesses);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Takes back the last guess of a game, rebuilding it from its latest earlier checkpoint.
+     *
+     * @param id of the game
+     * @return new game in the state before its last guess, to be used instead of the old one
+     * @throws NoSuchElementException if there is no such game in the log
+     * @throws IllegalStateException if the game has no guesses to take back
+     * @throws UncheckedIOException if the event cannot be written
+     */
+    public HangmanManager undo(long id) {
+        History history = history(id);
+        synchronized (this) {
+            if (history.guesses.length() == 0) {
+                throw new IllegalStateException();
+            }
+            history.undo();
+            append(UNDO, id, null, 0);
+            return rebuild(history, history.guesses.length());
+        }
+    }
+
+    /**
+     * Rebuilds a game as it was after some of its guesses, without changing the log.
+     *
+     * @param id of the game
+     * @param guesses to replay, from the start of the game
+     * @return new game in the state after that many guesses
+     * @throws NoSuchElementException if there is no such game in the log
+     * @throws IllegalArgumentException if the game has fewer guesses or guesses is negative
+     */
+    public HangmanManager rebuild(long id, int guesses) {
+        History history = history(id);
+        synchronized (this) {
+            if (guesses < 0 || guesses > history.guesses.length()) {
+                throw new IllegalArgumentException();
+            }
+            return rebuild(history, guesses);
+        }
+    }
+
+    /**
+     * Logs the end of a game and forgets its history.
+     *
+     * @param id of the game
+     * @throws UncheckedIOException if the event cannot be written
+     */
+    public synchronized void end(long id) {
+        if (this.histories.remove(id) != null) {
+            append(END, id, null, 0);
+        }
+    }
+
+    /**
+     * 'Getter' for the number of games in the log that have not ended.
+     *
+     * @return live game count
+     */
+    public synchronized int size() {
+        return this.histories.size();
+    }
+
+    /**
+     * Writes the current batch of events to the file.
+     *
+     * @throws UncheckedIOException if the batch cannot be written
+     */
+    public synchronized void flush() {
+        this.batch.flip();
+        try {
+            while (this.batch.hasRemaining()) {
+                this.channel.write(this.batch);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            this.batch.clear();
+        }
+    }
+
+    /**
+     * Writes the current batch of events and forces the file to storage.
+     *
+     * @throws UncheckedIOException if the batch cannot be written or forced
+     */
+    public synchronized void sync() {
+        flush();
+        try {
+            this.channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the current batch of events and closes the file.
+     *
+     * @throws IOException if the batch cannot be written or the file closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            this.channel.close();
+        }
+    }
+
+    /**
+     * 'Helper' that looks the history of a game up.
+     *
+     * @param id of the game
+     * @return history of the game
+     * @throws NoSuchElementException if there is no such game in the log
+     */
+    private synchronized History history(long id) {
+        History history = this.histories.get(id);
+        if (history == null) {
+            throw new NoSuchElementException();
+        }
+        return history;
+    }
+
+    /**
+     * 'Helper' that rebuilds a game from its latest checkpoint at or before a point, replaying the guesses after it.
+     *
+     * @param history of the game
+     * @param guesses to rebuild the game after
+     * @return new game in the state after that many guesses
+     */
+    private HangmanManager rebuild(History history, int guesses) {
+        Checkpoint checkpoint = history.latest(guesses);
+        HangmanManager game = history.dictionary != null
+                ? GameSnapshot.restore(checkpoint.snapshot, history.dictionary, history.cache, history.book)
+                : GameSnapshot.restore(checkpoint.snapshot, this.dictionary, this.cache, this.book);
+        for (int i = checkpoint.guesses; i < guesses; i++) {
+            game.record(history.guesses.charAt(i));
+        }
+        return game;
+    }
+
+    /**
+     * 'Helper' that finds the dictionary a game was started with.
+     *
+     * @param history of the game
+     * @return dictionary of the game
+     */
+    private DictionaryIndex dictionaryOf(History history) {
+        return history.dictionary != null ? history.dictionary : this.dictionary;
+    }
+
+    /**
+     * 'Helper' that adds an event to the batch, writing the batch out first if the event does not fit.
+     *
+     * @param type of the event
+     * @param id of the game
+     * @param snapshot of a checkpoint, null for other events
+     * @param value guesses of a checkpoint or the letter of a guess
+     * @throws UncheckedIOException if the batch cannot be written
+     */
+    private void append(int type, long id, byte[] snapshot, int value) {
+        int size = eventSize(type, snapshot);
+        if (this.batch.remaining() < size) {
+            flush();
+        }
+        if (size > this.batch.capacity()) {
+            ByteBuffer event = ByteBuffer.allocate(size);
+            put(event, type, id, snapshot, value);
+            event.flip();
+            try {
+                while (event.hasRemaining()) {
+                    this.channel.write(event);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            put(this.batch, type, id, snapshot, value);
+        }
+    }
+
+    /**
+     * 'Helper' for append that encodes an event.
+     *
+     * @param out to encode into
+     * @param type of the event
+     * @param id of the game
+     * @param snapshot of a checkpoint, null for other events
+     * @param value guesses of a checkpoint or the letter of a guess
+     */
+    private static void put(ByteBuffer out, int type, long id, byte[] snapshot, int value) {
+        out.put((byte) type).putLong(id);
+        if (type == CHECKPOINT) {
+            out.putInt(value).putInt(snapshot.length).put(snapshot);
+        } else if (type == GUESS) {
+            out.putChar((char) value);
+        }
+    }
+
+    /**
+     * 'Helper' for append that sizes an event.
+     *
+     * @param type of the event
+     * @param snapshot of a checkpoint, null for other events
+     * @return bytes of the encoded event
+     */
+    private static int eventSize(int type, byte[] snapshot) {
+        int size = Byte.BYTES + Long.BYTES;
+        if (type == CHECKPOINT) {
+            size += Integer.BYTES * 2 + snapshot.length;
+        } else if (type == GUESS) {
+            size += Character.BYTES;
+        }
+        return size;
+    }
+
+    /**
+     * 'Helper' for open that reads every complete event of a log into the histories of its games, a batch at a time.
+     *
+     * @param channel of the log, positioned after the bytes already in data
+     * @param data batch holding the start of the events, right after the header
+     * @param histories to read the events into
+     * @return length of the log up to the end of its last complete event
+     * @throws IOException if the log cannot be read or an event has an unknown type
+     */
+    private static long read(FileChannel channel, ByteBuffer data, Map<Long, History> histories) throws IOException {
+        long end = HEADER_BYTES;
+        while (fill(channel, data, Byte.BYTES + Long.BYTES)) {
+            int type = data.get();
+            long id = data.getLong();
+            byte[] snapshot = null;
+            if (type == CHECKPOINT) {
+                if (!fill(channel, data, Integer.BYTES * 2)) break;
+                int guesses = data.getInt();
+                int length = data.getInt();
+                if (length < 0 || length > channel.size() - end) break;
+                snapshot = new byte[length];
+                if (!fill(channel, data, snapshot)) break;
+                histories.computeIfAbsent(id, key -> new History()).checkpoint(guesses, snapshot);
+            } else if (type == GUESS) {
+                if (!fill(channel, data, Character.BYTES)) break;
+                char guess = data.getChar();
+                History history = histories.get(id);
+                if (history != null) history.guesses.append(guess);
+            } else if (type == UNDO) {
+                History history = histories.get(id);
+                if (history != null && history.guesses.length() > 0) history.undo();
+            } else if (type == END) {
+                histories.remove(id);
+            } else {
+                throw new IOException("Unknown event " + type + " at " + end);
+            }
+            end += eventSize(type, snapshot);
+        }
+        return end;
+    }
+
+    /**
+     * 'Helper' for read that makes sure a batch holds at least some bytes, moving what is left of it to its start
+     * and reading more of the log after it.
+     *
+     * @param channel of the log
+     * @param data batch being read
+     * @param bytes needed, at most the size of a batch
+     * @return false if the log ends first
+     * @throws IOException if the log cannot be read
+     */
+    private static boolean fill(FileChannel channel, ByteBuffer data, int bytes) throws IOException {
+        if (data.remaining() >= bytes) return true;
+        data.compact();
+        while (data.position() < bytes && channel.read(data) >= 0) {
+        }
+        data.flip();
+        return data.remaining() >= bytes;
+    }
+
+    /**
+     * 'Helper' for read that takes the bytes of a snapshot out of the batch and reads the rest of them, which may not
+     * fit into a batch, straight from the log.
+     *
+     * @param channel of the log
+     * @param data batch being read
+     * @param into array to fill
+     * @return false if the log ends first
+     * @throws IOException if the log cannot be read
+     */
+    private static boolean fill(FileChannel channel, ByteBuffer data, byte[] into) throws IOException {
+        int buffered = Math.min(data.remaining(), into.length);
+        data.get(into, 0, buffered);
+        ByteBuffer rest = ByteBuffer.wrap(into, buffered, into.length - buffered);
+        while (rest.hasRemaining() && channel.read(rest) >= 0) {
+        }
+        return !rest.hasRemaining();
+    }
+
+    /**
+     * 'Helper' for open that writes a new log holding only the events of the games that have not ended, and moves it
+     * over the old one. Every game keeps all of its checkpoints, so undo works as it did on the old log.
+     *
+     * @param path of the log
+     * @param histories of the games that have not ended
+     * @throws IOException if the new log cannot be written or moved
+     */
+    private static void compact(Path path, Map<Long, History> histories) throws IOException {
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        try (FileChannel channel = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeHeader(channel);
+            ByteBuffer batch = ByteBuffer.allocate(BATCH_BYTES);
+            for (Map.Entry<Long, History> entry : histories.entrySet()) {
+                History history = entry.getValue();
+                int next = 0;
+                for (int guesses = 0; guesses <= history.guesses.length(); guesses++) {
+                    for (; next < history.checkpoints.size() && history.checkpoints.get(next).guesses == guesses;
+                         next++) {
+                        write(channel, batch, CHECKPOINT, entry.getKey(), history.checkpoints.get(next).snapshot,
+                                guesses);
+                    }
+                    if (guesses < history.guesses.length()) {
+                        write(channel, batch, GUESS, entry.getKey(), null, history.guesses.charAt(guesses));
+                    }
+                }
+            }
+            batch.flip();
+            while (batch.hasRemaining()) channel.write(batch);
+            channel.force(true);
+        }
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 'Helper' for compact that adds an event to a batch, writing the batch out first if the event does not fit.
+     *
+     * @param channel of the new log
+     * @param batch of events not written yet
+     * @param type of the event
+     * @param id of the game
+     * @param snapshot of a checkpoint, null for other events
+     * @param value guesses of a checkpoint or the letter of a guess
+     * @throws IOException if the batch cannot be written
+     */
+    private static void write(FileChannel channel, ByteBuffer batch, int type, long id, byte[] snapshot, int value)
+            throws IOException {
+        int size = eventSize(type, snapshot);
+        if (batch.remaining() < size) {
+            batch.flip();
+            while (batch.hasRemaining()) channel.write(batch);
+            batch.clear();
+        }
+        if (size > batch.capacity()) {
+            ByteBuffer event = ByteBuffer.allocate(size);
+            put(event, type, id, snapshot, value);
+            event.flip();
+            while (event.hasRemaining()) channel.write(event);
+        } else {
+            put(batch, type, id, snapshot, value);
+        }
+    }
+
+    /**
+     * 'Helper' that writes the header of a new log.
+     *
+     * @param channel of the new log, empty
+     * @throws IOException if the header cannot be written
+     */
+    private static void writeHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION);
+        header.flip();
+        while (header.hasRemaining()) channel.write(header);
+    }
+
+    /**
+     * 'Helper' that holds what the log knows about one game: its guesses in order and its checkpoints.
+     */
+    private static final class History {
+        /**
+         * Dictionary the game was started with, when it is not the log's, such as for a game started from an older
+         * or newer main.DictionarySnapshots version. Null for games of the log's dictionary and games read back from
+         * the file, which are rebuilt against the log's as long as their checkpoints' bucket fingerprint matches it.
+         */
+        DictionaryIndex dictionary;
+        /**
+         * Partition cache of the game's dictionary, if not the log's.
+         */
+        PartitionCache cache;
+        /**
+         * Opening book of the game's dictionary, if not the log's.
+         */
+        OpeningBook book;
+        /**
+         * Letters guessed, in order, without those taken back.
+         */
+        final StringBuilder guesses = new StringBuilder();
+        /**
+         * Checkpoints by ascending number of guesses, starting with the game as it started.
+         */
+        final List<Checkpoint> checkpoints = new ArrayList<>();
+
+        /**
+         * Adds a checkpoint, replacing any taken after the same number of guesses.
+         *
+         * @param guesses the snapshot was taken after
+         * @param snapshot of the game
+         */
+        void checkpoint(int guesses, byte[] snapshot) {
+            while (!this.checkpoints.isEmpty() && this.checkpoints.get(this.checkpoints.size() - 1).guesses >= guesses) {
+                this.checkpoints.remove(this.checkpoints.size() - 1);
+            }
+            this.checkpoints.add(new Checkpoint(guesses, snapshot));
+        }
+
+        /**
+         * Sizes the events compact writes for the game.
+         *
+         * @return bytes of every checkpoint and guess of the game
+         */
+        long bytes() {
+            long bytes = (long) eventSize(GUESS, null) * this.guesses.length();
+            for (Checkpoint checkpoint : this.checkpoints) {
+                bytes += eventSize(CHECKPOINT, checkpoint.snapshot);
+            }
+            return bytes;
+        }
+
+        /**
+         * Takes back the last guess and any checkpoint taken after it.
+         */
+        void undo() {
+            this.guesses.setLength(this.guesses.length() - 1);
+            while (this.checkpoints.size() > 1
+                    && this.checkpoints.get(this.checkpoints.size() - 1).guesses > this.guesses.length()) {
+                this.checkpoints.remove(this.checkpoints.size() - 1);
+            }
+        }
+
+        /**
+         * Finds the checkpoint to rebuild from.
+         *
+         * @param guesses to rebuild the game after
+         * @return latest checkpoint taken after at most that many guesses
+         */
+        Checkpoint latest(int guesses) {
+            for (int i = this.checkpoints.size() - 1; i > 0; i--) {
+                if (this.checkpoints.get(i).guesses <= guesses) return this.checkpoints.get(i);
+            }
+            return this.checkpoints.get(0);
+        }
+    }
+
+    /**
+     * 'Helper' that holds a snapshot of a game and the number of guesses it was taken after.
+     */
+    private static final class Checkpoint {
+        /**
+         * Guesses the snapshot was taken after.
+         */
+        final int guesses;
+        /**
+         * Snapshot of the game, as written by main.GameSnapshot.
+         */
+        final byte[] snapshot;
+
+        /**
+         * Creates new Checkpoint.
+         *
+         * @param guesses the snapshot was taken after
+         * @param snapshot of the game
+         */
+        Checkpoint(int guesses, byte[] snapshot) {
+            this.guesses = guesses;
+            this.snapshot = snapshot;
+        }
+    }
+}
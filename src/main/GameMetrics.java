@@ -0,0 +1,95 @@
+package main;
+
+/**
+ * Listener for what main.HangmanManager does inside record: how long each phase takes, how the words split into
+ * families and how often main.DubiousHangmanManager forces a miss on the last guess. Every method does nothing by
+ * default, and games that were never given metrics use NONE and skip reading the clock altogether.
+ */
+public interface GameMetrics {
+
+    /**
+     * Metrics that are thrown away, used by every game until it is given other metrics.
+     */
+    GameMetrics NONE = new GameMetrics() { };
+
+    /**
+     * Phases of record.
+     */
+    enum Phase {
+        /**
+         * Partitioning the words into families for the guess.
+         */
+        BUILD_WORD_MAP("buildWordMap"),
+        /**
+         * Choosing a family and narrowing the words down to it.
+         */
+        FIND_LARGEST_LIST("findLargestList"),
+        /**
+         * Taking the family from the opening book or the partition cache instead of partitioning.
+         */
+        FIND_STORED_LIST("findStoredList"),
+        /**
+         * Counting the matches of the guess in the new pattern.
+         */
+        COUNT_MATCHES("countMatches"),
+        /**
+         * Revealing the guess in the last word left.
+         */
+        FINAL_WORD_GUESSES("finalWordGuesses");
+
+        /**
+         * Name of the phase as it appears in the code.
+         */
+        private final String label;
+
+        /**
+         * Creates new Phase.
+         *
+         * @param label of the phase
+         */
+        Phase(String label) {
+            this.label = label;
+        }
+
+        /**
+         * 'Getter' for the label.
+         *
+         * @return name of the phase as it appears in the code
+         */
+        public String label() {
+            return this.label;
+        }
+    }
+
+    /**
+     * Called after a phase of record.
+     *
+     * @param phase that ran
+     * @param nanos it took
+     */
+    default void phase(Phase phase, long nanos) {
+    }
+
+    /**
+     * Called after the words were partitioned for a guess.
+     *
+     * @param wordsScanned words that were partitioned
+     * @param families the words split into
+     */
+    default void partitioned(int wordsScanned, int families) {
+    }
+
+    /**
+     * Called after the words were narrowed down to a family.
+     *
+     * @param familySize words of the family kept
+     */
+    default void narrowed(int familySize) {
+    }
+
+    /**
+     * Called when main.DubiousHangmanManager forces a miss on the last guess.
+     */
+    default void lastGuessForced() {
+    }
+}
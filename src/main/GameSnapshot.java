@@ -0,0 +1,370 @@
+package main;
+
+import java.io.*;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Compact binary snapshots of games in progress, for parking idle games or carrying them across restarts. A snapshot
+ * holds the kind of game, the word length, the guesses left, the guessed letters as a bitmask, the pattern as one byte
+ * per position and the current family as ids into the length bucket of a main.DictionaryIndex, written as gaps between
+ * ids or as a bitset, whichever is smaller. A fresh game's family is the whole bucket and takes no space at all.
+ *
+ * Snapshots store the fingerprint of the bucket and can only be restored against a dictionary whose words of that
+ * length are the same.
+ */
+public final class GameSnapshot {
+
+    /**
+     * "HSNP", first bytes of every snapshot.
+     */
+    static final int MAGIC = 0x48534E50;
+    /**
+     * Version of the snapshot format.
+     */
+    static final int VERSION = 1;
+    /**
+     * Kind of a main.HangmanManager.
+     */
+    private static final int GREEDY = 0;
+    /**
+     * Kind of a main.DubiousHangmanManager.
+     */
+    private static final int DUBIOUS = 1;
+    /**
+     * Kind of a main.LookaheadHangmanManager, followed by its depth and budget.
+     */
+    private static final int LOOKAHEAD = 2;
+    /**
+     * Family is the whole bucket.
+     */
+    private static final int ALL = 0;
+    /**
+     * Family is written as the gaps between ascending ids.
+     */
+    private static final int GAPS = 1;
+    /**
+     * Family is written as a bitset of ids.
+     */
+    private static final int BITSET = 2;
+
+    /**
+     * Not instantiable.
+     */
+    private GameSnapshot() {
+    }
+
+    /**
+     * Takes a snapshot of a game.
+     *
+     * @param game to snapshot
+     * @param dictionary index the game's words come from
+     * @return snapshot of the game
+     * @throws IllegalArgumentException if a word of the game is not in the dictionary
+     */
+    public static byte[] save(HangmanManager game, DictionaryIndex dictionary) {
+        int length = game.rawPattern().length();
+        SortedSet<String> bucket = dictionary.words(length);
+        int[] ids = new int[game.words.size()];
+        int count = 0;
+        for (String word : game.words) {
+            int id = bucket instanceof SortedArraySet ? ((SortedArraySet) bucket).indexOf(word) : -1;
+            if (id < 0) {
+                throw new IllegalArgumentException(word);
+            }
+            ids[count++] = id;
+        }
+        List<Character> letters = new ArrayList<>(game.letters);
+        if (letters.size() >= 255) {
+            throw new IllegalArgumentException();
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            if (game instanceof LookaheadHangmanManager) {
+                LookaheadHangmanManager lookahead = (LookaheadHangmanManager) game;
+                out.writeByte(LOOKAHEAD);
+                out.writeByte(lookahead.depth());
+                out.writeLong(lookahead.budget().toNanos());
+            } else {
+                out.writeByte(game instanceof DubiousHangmanManager ? DUBIOUS : GREEDY);
+            }
+            out.writeByte(length);
+            writeVarint(out, game.guessesLeft());
+            out.writeInt(dictionary.fingerprint(length));
+            writeLetters(out, letters);
+            String pattern = game.rawPattern();
+            for (int i = 0; i < length; i++) {
+                int letter = letters.indexOf(pattern.charAt(i));
+                out.writeByte(letter + 1);
+            }
+            writeFamily(out, ids, bucket.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Restores a game that neither shares a partition cache nor uses an opening book.
+     *
+     * @param snapshot taken by save
+     * @param dictionary index the snapshot was taken against
+     * @return game in the state it was saved in
+     * @throws IllegalArgumentException if the snapshot is malformed or was taken against another dictionary
+     */
+    public static HangmanManager restore(byte[] snapshot, DictionaryIndex dictionary) {
+        return restore(snapshot, dictionary, null, null);
+    }
+
+    /**
+     * Restores a game. Lookahead games never use the cache or book.
+     *
+     * @param snapshot taken by save
+     * @param dictionary index the snapshot was taken against
+     * @param cache of partition results for the dictionary, null to always partition
+     * @param book of the first guesses for the dictionary, null to partition from the first guess on
+     * @return game in the state it was saved in
+     * @throws IllegalArgumentException if the snapshot is malformed, was taken against another dictionary or if
+     * the cache or book belongs to another dictionary
+     */
+    public static HangmanManager restore(byte[] snapshot, DictionaryIndex dictionary, PartitionCache cache,
+                                         OpeningBook book) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(snapshot))) {
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != VERSION) {
+                throw new IllegalArgumentException();
+            }
+            int kind = in.readUnsignedByte();
+            int depth = 0;
+            long budget = 0;
+            if (kind == LOOKAHEAD) {
+                depth = in.readUnsignedByte();
+                budget = in.readLong();
+            } else if (kind != GREEDY && kind != DUBIOUS) {
+                throw new IllegalArgumentException();
+            }
+            int length = in.readUnsignedByte();
+            int guessesLeft = readVarint(in);
+            if (in.readInt() != dictionary.fingerprint(length)) {
+                throw new IllegalArgumentException();
+            }
+            List<Character> letters = readLetters(in);
+            char[] pattern = new char[length];
+            for (int i = 0; i < length; i++) {
+                int letter = in.readUnsignedByte();
+                pattern[i] = letter == 0 ? '-' : letters.get(letter - 1);
+            }
+            SortedSet<String> family = readFamily(in, dictionary.words(length));
+            int guesses = Math.max(guessesLeft, 1);
+            HangmanManager game;
+            if (kind == LOOKAHEAD) {
+                game = new LookaheadHangmanManager(dictionary, length, guesses, depth, Duration.ofNanos(budget), family);
+            } else if (kind == DUBIOUS) {
+                game = new DubiousHangmanManager(dictionary, length, guesses, cache, book, family);
+            } else {
+                game = new HangmanManager(dictionary, length, guesses, cache, book, family);
+            }
+            game.restore(guessesLeft, letters, new String(pattern));
+            return game;
+        } catch (IOException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Tells whether a snapshot was taken against the same words of its length as a dictionary holds, reading only
+     * as far as the fingerprint of the bucket.
+     *
+     * @param snapshot taken by save
+     * @param dictionary index to restore the snapshot against
+     * @return true if the dictionary's bucket of the snapshot's length has the fingerprint stored in it
+     * @throws IllegalArgumentException if the snapshot is malformed
+     */
+    static boolean matches(byte[] snapshot, DictionaryIndex dictionary) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(snapshot))) {
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != VERSION) {
+                throw new IllegalArgumentException();
+            }
+            int kind = in.readUnsignedByte();
+            if (kind == LOOKAHEAD) {
+                in.readUnsignedByte();
+                in.readLong();
+            } else if (kind != GREEDY && kind != DUBIOUS) {
+                throw new IllegalArgumentException();
+            }
+            int length = in.readUnsignedByte();
+            readVarint(in);
+            return in.readInt() == dictionary.fingerprint(length);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * 'Helper' for save that writes the guessed letters: a bitmask of the letters a to z, then any other letters.
+     *
+     * @param out to write to
+     * @param letters guessed, in ascending order
+     * @throws IOException if the letters cannot be written
+     */
+    private static void writeLetters(DataOutputStream out, List<Character> letters) throws IOException {
+        int mask = 0;
+        StringBuilder others = new StringBuilder();
+        for (char letter : letters) {
+            if (letter >= 'a' && letter <= 'z') {
+                mask |= 1 << (letter - 'a');
+            } else {
+                others.append(letter);
+            }
+        }
+        out.writeInt(mask);
+        out.writeByte(others.length());
+        out.writeChars(others.toString());
+    }
+
+    /**
+     * 'Helper' for restore that reads the guessed letters.
+     *
+     * @param in to read from
+     * @return letters guessed, in ascending order
+     * @throws IOException if the letters cannot be read
+     */
+    private static List<Character> readLetters(DataInputStream in) throws IOException {
+        int mask = in.readInt();
+        TreeSet<Character> letters = new TreeSet<>();
+        for (int letter = 0; letter < 26; letter++) {
+            if ((mask & 1 << letter) != 0) letters.add((char) ('a' + letter));
+        }
+        int others = in.readUnsignedByte();
+        for (int i = 0; i < others; i++) {
+            letters.add(in.readChar());
+        }
+        return new ArrayList<>(letters);
+    }
+
+    /**
+     * 'Helper' for save that writes the family in its smallest encoding.
+     *
+     * @param out to write to
+     * @param ids of the family, ascending
+     * @param bucketSize number of words of the length
+     * @throws IOException if the family cannot be written
+     */
+    private static void writeFamily(DataOutputStream out, int[] ids, int bucketSize) throws IOException {
+        if (ids.length == bucketSize) {
+            out.writeByte(ALL);
+            return;
+        }
+        int gapBytes = varintSize(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            gapBytes += varintSize(ids[i] - (i == 0 ? 0 : ids[i - 1]));
+        }
+        int bitsetLongs = ids.length == 0 ? 0 : ids[ids.length - 1] / Long.SIZE + 1;
+        if (gapBytes <= varintSize(bitsetLongs) + bitsetLongs * Long.BYTES) {
+            out.writeByte(GAPS);
+            writeVarint(out, ids.length);
+            for (int i = 0; i < ids.length; i++) {
+                writeVarint(out, ids[i] - (i == 0 ? 0 : ids[i - 1]));
+            }
+        } else {
+            long[] bits = new long[bitsetLongs];
+            for (int id : ids) {
+                bits[id / Long.SIZE] |= 1L << (id % Long.SIZE);
+            }
+            out.writeByte(BITSET);
+            writeVarint(out, bitsetLongs);
+            for (long word : bits) {
+                out.writeLong(word);
+            }
+        }
+    }
+
+    /**
+     * 'Helper' for restore that reads the family.
+     *
+     * @param in to read from
+     * @param bucket sorted words of the length
+     * @return words of the family, sorted
+     * @throws IOException if the family cannot be read
+     */
+    private static SortedSet<String> readFamily(DataInputStream in, SortedSet<String> bucket) throws IOException {
+        int encoding = in.readUnsignedByte();
+        if (encoding == ALL) {
+            return bucket;
+        }
+        SortedArraySet words = (SortedArraySet) bucket;
+        if (encoding == GAPS) {
+            String[] family = new String[readVarint(in)];
+            int id = 0;
+            for (int i = 0; i < family.length; i++) {
+                id += readVarint(in);
+                family[i] = words.get(id);
+            }
+            return new SortedArraySet(family);
+        } else if (encoding == BITSET) {
+            long[] bits = new long[readVarint(in)];
+            int count = 0;
+            for (int i = 0; i < bits.length; i++) {
+                bits[i] = in.readLong();
+                count += Long.bitCount(bits[i]);
+            }
+            String[] family = new String[count];
+            int next = 0;
+            for (int i = 0; i < bits.length; i++) {
+                for (long remaining = bits[i]; remaining != 0; remaining &= remaining - 1) {
+                    family[next++] = words.get(i * Long.SIZE + Long.numberOfTrailingZeros(remaining));
+                }
+            }
+            return new SortedArraySet(family);
+        }
+        throw new IllegalArgumentException();
+    }
+
+    /**
+     * 'Helper' that writes a non-negative int in 7-bit groups, low group first.
+     *
+     * @param out to write to
+     * @param value to write
+     * @throws IOException if the value cannot be written
+     */
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * 'Helper' that reads an int written by writeVarint.
+     *
+     * @param in to read from
+     * @return value read
+     * @throws IOException if the value cannot be read
+     */
+    private static int readVarint(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IllegalArgumentException();
+    }
+
+    /**
+     * 'Helper' that counts the bytes writeVarint writes for a value.
+     *
+     * @param value non-negative
+     * @return bytes written
+     */
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,427 @@
+package main;
+
+import java.util.*;
+
+/**
+ * Current family of one game as constraints over a shared main.WordGraph: the letter revealed at every position and
+ * the letters guessed so far. A word of the length bucket is in the family exactly when it shows the revealed
+ * letters and holds no guessed letter anywhere else, which is what every family the game can have narrowed down to
+ * looks like, so a game holds no words at all and narrowing is a matter of revealing a letter at some positions.
+ *
+ * Every walk of the graph follows only the edges the constraints allow, so it never enters a subtree that cannot
+ * match the pattern and shrinks with every guess. Partitioning computes, for every node it reaches, the table of
+ * the families of the words below it, merging the tables of its children, and reuses it wherever the node is reached
+ * again, so the words shared by several prefixes are keyed once. A node with a single child holding words shares the
+ * child's table. Counting the family and its letters works the same way. The results per node live in scratch space
+ * the graph keeps for each thread, so a game itself holds only its constraints and the tables of its last partition.
+ */
+final class GraphFamily extends AbstractSet<String> {
+
+    /**
+     * Shared graph of the length bucket.
+     */
+    private final WordGraph graph;
+    /**
+     * Alphabet index of the letter revealed at every position, -1 where none is.
+     */
+    private final int[] revealed;
+    /**
+     * Guessed letters the family was narrowed for, as a bitset of their alphabet indexes.
+     */
+    private final long[] guessed;
+    /**
+     * Number of words in the family.
+     */
+    private int size;
+    /**
+     * Words per family of the last partition.
+     */
+    private final FamilyCounts counts;
+    /**
+     * Alphabet index of the guess of the last partition.
+     */
+    private int guess;
+    /**
+     * Scratch space of the current walk: results per node and the tables of partition, taken from the graph for the
+     * calling thread at the start of every walk.
+     */
+    private WordGraph.Memo memo;
+    /**
+     * Words of the family holding each letter, null until asked for since the last narrow.
+     */
+    private LetterCounts letters;
+
+    /**
+     * Creates new main.GraphFamily holding the whole bucket.
+     *
+     * @param graph of the length bucket
+     */
+    GraphFamily(WordGraph graph) {
+        this.graph = graph;
+        this.revealed = new int[graph.length()];
+        Arrays.fill(this.revealed, -1);
+        this.guessed = new long[(graph.alphabet().size() + Long.SIZE - 1) / Long.SIZE];
+        this.size = graph.words(graph.root());
+        this.counts = new FamilyCounts();
+        this.guess = -1;
+    }
+
+    /**
+     * 'Getter' for the family size.
+     *
+     * @return number of words in the family
+     */
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean contains(Object object) {
+        if (!(object instanceof String) || ((String) object).length() != this.graph.length()) return false;
+        String word = (String) object;
+        int node = this.graph.root();
+        for (int depth = 0; depth < word.length(); depth++) {
+            int letter = this.graph.alphabet().indexOf(word.charAt(depth));
+            if (letter < 0 || !allowed(depth, letter)) return false;
+            node = child(node, letter);
+            if (node < 0) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<>() {
+            private final int[] nodes = new int[graph.length() + 1];
+            private final int[] edges = new int[graph.length() + 1];
+            private final char[] word = new char[graph.length()];
+            private int depth;
+            private String next;
+
+            {
+                this.nodes[0] = graph.root();
+                this.edges[0] = graph.firstEdge(graph.root());
+                this.next = find();
+            }
+
+            @Override
+            public boolean hasNext() {
+                return this.next != null;
+            }
+
+            @Override
+            public String next() {
+                if (this.next == null) throw new NoSuchElementException();
+                String word = this.next;
+                this.next = find();
+                return word;
+            }
+
+            /**
+             * Walks on to the next word the constraints allow, depth first in letter order.
+             *
+             * @return next word of the family, null if there are no more
+             */
+            private String find() {
+                while (this.depth >= 0) {
+                    if (this.depth == graph.length()) {
+                        this.depth--;
+                        return new String(this.word);
+                    }
+                    int node = this.nodes[this.depth];
+                    int edge = this.edges[this.depth];
+                    while (edge < graph.endEdge(node) && !allowed(this.depth, graph.letter(edge))) {
+                        edge++;
+                    }
+                    if (edge == graph.endEdge(node)) {
+                        this.depth--;
+                        continue;
+                    }
+                    this.edges[this.depth] = edge + 1;
+                    this.word[this.depth] = graph.alphabet().letter(graph.letter(edge));
+                    this.depth++;
+                    this.nodes[this.depth] = graph.target(edge);
+                    this.edges[this.depth] = graph.firstEdge(graph.target(edge));
+                }
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Splits the family into families for a guess. Replaces the result of any previous partition.
+     *
+     * @param guess that user provided, in the alphabet of the graph
+     */
+    void partition(char guess) {
+        this.guess = this.graph.alphabet().indexOf(guess);
+        this.counts.clear();
+        this.memo = this.graph.memo();
+        WordGraph.Memo memo = this.memo;
+        long table = table(this.graph.root(), 0);
+        for (int i = (int) (table >>> 32); i < (int) table; i++) {
+            this.counts.add(memo.tableKeys[i], memo.tableSizes[i]);
+        }
+    }
+
+    /**
+     * 'Getter' for the families of the last partition.
+     *
+     * @return words per family of the last partition
+     */
+    FamilyCounts counts() {
+        return this.counts;
+    }
+
+    /**
+     * Number of families in the last partition.
+     *
+     * @return family count
+     */
+    int families() {
+        return this.counts.families();
+    }
+
+    /**
+     * Narrows the family down to one family of the last partition.
+     *
+     * @param key of the family to keep
+     */
+    void narrow(long key) {
+        reveal(key);
+        this.size = this.counts.size(key);
+    }
+
+    /**
+     * Narrows the family down to the words that show a guess at exactly the positions of a key, without
+     * partitioning first. Replaces the result of any previous partition.
+     *
+     * @param guess that user provided, in the alphabet of the graph
+     * @param key of the family to keep, as built by main.FamilyPartitioner
+     */
+    void narrow(char guess, long key) {
+        this.guess = this.graph.alphabet().indexOf(guess);
+        this.counts.clear();
+        reveal(key);
+        this.memo = this.graph.memo();
+        this.size = count(this.graph.root(), 0);
+    }
+
+    /**
+     * 'Getter' for the letter counts of the family, counted with one walk per letter the first time they are asked
+     * for after a narrow.
+     *
+     * @return words of the family holding each letter
+     */
+    LetterCounts letters() {
+        if (this.letters == null) {
+            LetterCounts letters = new LetterCounts(this.graph.alphabet());
+            for (int letter = 0; letter < this.graph.alphabet().size(); letter++) {
+                this.memo = this.graph.memo();
+                letters.add(letter, (int) withLetter(this.graph.root(), 0, letter));
+            }
+            this.letters = letters;
+        }
+        return this.letters;
+    }
+
+    /**
+     * 'Helper' for the narrows that reveals the guess of the last partition at the positions of a key.
+     *
+     * @param key of the family to keep
+     */
+    private void reveal(long key) {
+        int length = this.graph.length();
+        for (int position = 0; position < length; position++) {
+            if (FamilyPartitioner.revealed(key, length, position)) this.revealed[position] = this.guess;
+        }
+        this.guessed[this.guess >>> 6] |= 1L << this.guess;
+        this.letters = null;
+    }
+
+    /**
+     * 'Helper' that checks whether the constraints let a letter stand at a position.
+     *
+     * @param position within the word
+     * @param letter alphabet index of the letter
+     * @return true if the letter is revealed there, or nothing is and the letter was not guessed
+     */
+    private boolean allowed(int position, int letter) {
+        int shown = this.revealed[position];
+        return shown >= 0 ? letter == shown : (this.guessed[letter >>> 6] & 1L << letter) == 0;
+    }
+
+    /**
+     * 'Helper' for contains that follows the edge of a letter, searching the sorted edges of a node.
+     *
+     * @param node of the graph
+     * @param letter alphabet index of the letter
+     * @return node the edge leads to, -1 if the node has no such edge
+     */
+    private int child(int node, int letter) {
+        int low = this.graph.firstEdge(node);
+        int high = this.graph.endEdge(node) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int found = this.graph.letter(middle);
+            if (found == letter) return this.graph.target(middle);
+            if (found < letter) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 'Helper' for partition that builds the table of the families below a node for the guess, merging the tables
+     * of the children the constraints allow.
+     *
+     * @param node of the graph
+     * @param depth of the node
+     * @return start and end of the table in tableKeys, packed into a long
+     */
+    private long table(int node, int depth) {
+        int length = this.graph.length();
+        if (depth == length) return 1;
+        int found = this.memo.get(node);
+        if (found >= 0) return (long) this.memo.first(found) << 32 | this.memo.second(found);
+        long[] children = this.memo.children[depth];
+        int count = 0;
+        long guessed = -1;
+        for (int edge = this.graph.firstEdge(node); edge < this.graph.endEdge(node); edge++) {
+            int letter = this.graph.letter(edge);
+            if (!allowed(depth, letter)) continue;
+            long table = table(this.graph.target(edge), depth + 1);
+            if ((int) (table >>> 32) == (int) table) continue;
+            if (letter == this.guess) {
+                guessed = table;
+            } else {
+                children[count++] = table;
+            }
+        }
+        if (count == 1 && guessed == -1) {
+            // Only one child holds words, so its table is this node's as well.
+            this.memo.put(node, (int) (children[0] >>> 32), (int) children[0]);
+            return children[0];
+        }
+        this.memo.mergeUsed = 0;
+        for (int i = 0; i < count; i++) {
+            merge((int) (children[i] >>> 32), (int) children[i]);
+        }
+        int start = this.memo.tableUsed;
+        for (int i = 0; i < this.memo.mergeUsed; i++) {
+            append(this.memo.mergeKeys[i], this.memo.mergeSizes[i]);
+        }
+        if (guessed != -1) {
+            // Keys that reveal the guess here rank above every key that does not, so they go after them as they are.
+            long bit = 1L << (length - 1 - depth);
+            for (int i = (int) (guessed >>> 32); i < (int) guessed; i++) {
+                append(this.memo.tableKeys[i] | bit, this.memo.tableSizes[i]);
+            }
+        }
+        this.memo.put(node, start, this.memo.tableUsed);
+        return (long) start << 32 | this.memo.tableUsed;
+    }
+
+    /**
+     * 'Helper' for table that merges the table of a child into mergeKeys, adding up the sizes of the families found
+     * in both.
+     *
+     * @param from start of the table of the child in tableKeys
+     * @param to end of the table of the child in tableKeys
+     */
+    private void merge(int from, int to) {
+        WordGraph.Memo memo = this.memo;
+        int end = memo.mergeUsed;
+        int total = end + to - from;
+        if (memo.mergedKeys.length < total) {
+            memo.mergedKeys = new long[Math.max(total, memo.mergedKeys.length * 2)];
+            memo.mergedSizes = new int[memo.mergedKeys.length];
+        }
+        int merged = 0;
+        int i = 0;
+        int j = from;
+        while (i < end || j < to) {
+            int order = i == end ? 1 : j == to ? -1 : Long.compareUnsigned(memo.mergeKeys[i], memo.tableKeys[j]);
+            if (order <= 0) {
+                memo.mergedKeys[merged] = memo.mergeKeys[i];
+                memo.mergedSizes[merged] = memo.mergeSizes[i++];
+                if (order == 0) memo.mergedSizes[merged] += memo.tableSizes[j++];
+            } else {
+                memo.mergedKeys[merged] = memo.tableKeys[j];
+                memo.mergedSizes[merged] = memo.tableSizes[j++];
+            }
+            merged++;
+        }
+        long[] keys = memo.mergeKeys;
+        int[] sizes = memo.mergeSizes;
+        memo.mergeKeys = memo.mergedKeys;
+        memo.mergeSizes = memo.mergedSizes;
+        memo.mergedKeys = keys;
+        memo.mergedSizes = sizes;
+        memo.mergeUsed = merged;
+    }
+
+    /**
+     * 'Helper' for table that adds a family at the end of tableKeys, growing it as needed.
+     *
+     * @param key of the family
+     * @param size of the family
+     */
+    private void append(long key, int size) {
+        WordGraph.Memo memo = this.memo;
+        if (memo.tableUsed == memo.tableKeys.length) {
+            memo.tableKeys = Arrays.copyOf(memo.tableKeys, memo.tableUsed * 2);
+            memo.tableSizes = Arrays.copyOf(memo.tableSizes, memo.tableUsed * 2);
+        }
+        memo.tableKeys[memo.tableUsed] = key;
+        memo.tableSizes[memo.tableUsed++] = size;
+    }
+
+    /**
+     * 'Helper' for narrow that counts the words below a node that the constraints allow.
+     *
+     * @param node of the graph
+     * @param depth of the node
+     * @return number of words
+     */
+    private int count(int node, int depth) {
+        if (depth == this.graph.length()) return 1;
+        int found = this.memo.get(node);
+        if (found >= 0) return this.memo.first(found);
+        int count = 0;
+        for (int edge = this.graph.firstEdge(node); edge < this.graph.endEdge(node); edge++) {
+            if (allowed(depth, this.graph.letter(edge))) count += count(this.graph.target(edge), depth + 1);
+        }
+        this.memo.put(node, count, 0);
+        return count;
+    }
+
+    /**
+     * 'Helper' for letters that counts the words below a node that the constraints allow, and those of them that
+     * hold a letter.
+     *
+     * @param node of the graph
+     * @param depth of the node
+     * @param letter alphabet index of the letter
+     * @return words holding the letter in the low half, all words in the high half
+     */
+    private long withLetter(int node, int depth, int letter) {
+        if (depth == this.graph.length()) return 1L << 32;
+        int found = this.memo.get(node);
+        if (found >= 0) return (long) this.memo.first(found) << 32 | this.memo.second(found);
+        int count = 0;
+        int with = 0;
+        for (int edge = this.graph.firstEdge(node); edge < this.graph.endEdge(node); edge++) {
+            if (!allowed(depth, this.graph.letter(edge))) continue;
+            long below = withLetter(this.graph.target(edge), depth + 1, letter);
+            count += (int) (below >>> 32);
+            with += this.graph.letter(edge) == letter ? (int) (below >>> 32) : (int) below;
+        }
+        this.memo.put(node, count, with);
+        return (long) count << 32 | with;
+    }
+}
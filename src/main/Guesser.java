@@ -0,0 +1,107 @@
+package main;
+
+import java.util.*;
+
+/**
+ * Bot that picks the next letter of a game, used by main.HangmanSimulator to play without a console. Guessers keep no
+ * state of their own, so one guesser can play any number of games at once.
+ */
+public interface Guesser {
+
+    /**
+     * Letters in order of their frequency in English, most frequent first.
+     */
+    String FREQUENCY_ORDER = "esiarntolcdupmghbyfvkwzxqj";
+
+    /**
+     * Picks the next letter.
+     *
+     * @param game in progress, with at least one letter left to reveal
+     * @param random source of randomness of the calling thread
+     * @return letter that has not been guessed yet
+     */
+    char guess(HangmanManager game, Random random);
+
+    /**
+     * Creates a guesser that follows the frequency of letters in English, regardless of the words left.
+     *
+     * @return frequency guesser
+     */
+    static Guesser frequency() {
+        return (game, random) -> {
+            for (int i = 0; i < FREQUENCY_ORDER.length(); i++) {
+                if (!game.guesses().contains(FREQUENCY_ORDER.charAt(i))) return FREQUENCY_ORDER.charAt(i);
+            }
+            return unguessed(game).first();
+        };
+    }
+
+    /**
+     * Creates a guesser that picks any letter it has not tried yet.
+     *
+     * @return random guesser
+     */
+    static Guesser random() {
+        return (game, random) -> {
+            List<Character> left = new ArrayList<>();
+            for (char letter = 'a'; letter <= 'z'; letter++) {
+                if (!game.guesses().contains(letter)) left.add(letter);
+            }
+            if (left.isEmpty()) {
+                left.addAll(unguessed(game));
+            }
+            return left.get(random.nextInt(left.size()));
+        };
+    }
+
+    /**
+     * Creates a guesser that sees the words the game still considers and picks the letter found in most of them.
+     *
+     * @return oracle guesser
+     */
+    static Guesser oracle() {
+        return (game, random) -> {
+            char best = 0;
+            int most = 0;
+            for (Map.Entry<Character, Integer> count : game.letterCounts().entrySet()) {
+                if (count.getValue() > most && !game.guesses().contains(count.getKey())) {
+                    best = count.getKey();
+                    most = count.getValue();
+                }
+            }
+            return best;
+        };
+    }
+
+    /**
+     * Looks a guesser up by name.
+     *
+     * @param name of the guesser: frequency, random or oracle
+     * @return new guesser
+     * @throws IllegalArgumentException if there is no guesser of that name
+     */
+    static Guesser named(String name) {
+        switch (name) {
+            case "frequency":
+                return frequency();
+            case "random":
+                return random();
+            case "oracle":
+                return oracle();
+            default:
+                throw new IllegalArgumentException(name);
+        }
+    }
+
+    /**
+     * 'Helper' that lists the letters of the words left that have not been guessed yet.
+     *
+     * @param game in progress
+     * @return unguessed letters of the words left, sorted
+     */
+    private static TreeSet<Character> unguessed(HangmanManager game) {
+        TreeSet<Character> letters = new TreeSet<>(game.letterCounts().keySet());
+        letters.removeAll(game.guesses());
+        return letters;
+    }
+}
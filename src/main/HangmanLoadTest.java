@@ -0,0 +1,171 @@
+package main;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Local load test for main.HangmanServer. Starts a server in-process, lets many concurrent clients play whole games
+ * against it and reports p50/p99 latency of the guess requests, both as seen by the client and as time spent inside
+ * record on the server.
+ */
+public class HangmanLoadTest {
+
+    /**
+     * Letters guessed by every client, most frequent in English first.
+     */
+    private static final String GUESS_ORDER = "esiarntolcdupmghbyfvkwzxqj";
+
+    /**
+     * Runs the load test.
+     *
+     * @param args optional number of concurrent clients, games per client, shortest and longest word length
+     * @throws Exception if the server cannot start or a client fails
+     */
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int minLength = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int maxLength = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        DictionaryIndex dictionary = HangmanMain.loadDictionary();
+        HangmanServer server = new HangmanServer(dictionary, HangmanMain.loadOpeningBook(dictionary), 0);
+        server.start();
+        ExecutorService executor = HangmanServer.newThreadPerTaskExecutor();
+        HttpClient client = HttpClient.newBuilder().executor(executor).build();
+        String base = "http://localhost:" + server.port() + "/games";
+        try {
+            List<Future<long[][]>> results = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int i = 0; i < clients; i++) {
+                long seed = i;
+                results.add(executor.submit(() -> play(client, base, games, minLength, maxLength, new Random(seed))));
+            }
+            List<long[]> roundTrips = new ArrayList<>();
+            List<long[]> records = new ArrayList<>();
+            for (Future<long[][]> result : results) {
+                roundTrips.add(result.get()[0]);
+                records.add(result.get()[1]);
+            }
+            long elapsed = System.nanoTime() - start;
+            long[] roundTrip = merge(roundTrips);
+            long[] record = merge(records);
+            System.out.printf("%d clients, %d games each, %d guesses in %.2f s (%.0f guesses/s)%n", clients, games,
+                    roundTrip.length, elapsed / 1e9, roundTrip.length / (elapsed / 1e9));
+            report("guess round trip", roundTrip);
+            report("server record", record);
+            System.out.println(send(client, "GET", "http://localhost:" + server.port() + "/stats"));
+        } finally {
+            executor.shutdownNow();
+            server.stop();
+        }
+    }
+
+    /**
+     * Plays games for one client.
+     *
+     * @param client to send requests with
+     * @param base URI of the games endpoint
+     * @param games to play
+     * @param minLength shortest word length to pick
+     * @param maxLength longest word length to pick
+     * @param random source of word lengths
+     * @return round trip and server record latencies in nanoseconds of every guess
+     * @throws IOException if a request fails
+     * @throws InterruptedException if interrupted while waiting for a response
+     */
+    private static long[][] play(HttpClient client, String base, int games, int minLength, int maxLength,
+                                 Random random) throws IOException, InterruptedException {
+        long[] roundTrips = new long[games * GUESS_ORDER.length()];
+        long[] records = new long[roundTrips.length];
+        int count = 0;
+        for (int game = 0; game < games; game++) {
+            int length = minLength + random.nextInt(maxLength - minLength + 1);
+            String body = send(client, "POST", base + "?length=" + length + "&guesses=8");
+            String id = field(body, "id");
+            for (int i = 0; i < GUESS_ORDER.length() && body.contains("\"over\":false"); i++) {
+                long start = System.nanoTime();
+                body = send(client, "POST", base + "/" + id + "/guess?letter=" + GUESS_ORDER.charAt(i));
+                roundTrips[count] = System.nanoTime() - start;
+                records[count++] = Long.parseLong(field(body, "recordNanos"));
+            }
+            send(client, "DELETE", base + "/" + id);
+        }
+        return new long[][] {Arrays.copyOf(roundTrips, count), Arrays.copyOf(records, count)};
+    }
+
+    /**
+     * 'Helper' that sends a request without a body.
+     *
+     * @param client to send with
+     * @param method HTTP method
+     * @param uri of the request
+     * @return response body
+     * @throws IOException if the request fails or is not successful
+     * @throws InterruptedException if interrupted while waiting for the response
+     */
+    private static String send(HttpClient client, String method, String uri)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(uri))
+                .method(method, HttpRequest.BodyPublishers.noBody()).build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IOException(method + " " + uri + " failed: " + response.body());
+        }
+        return response.body();
+    }
+
+    /**
+     * 'Helper' that pulls a top-level value out of a flat JSON object.
+     *
+     * @param json object
+     * @param name of the member
+     * @return value of the member without quotes
+     */
+    private static String field(String json, String name) {
+        int start = json.indexOf("\"" + name + "\":") + name.length() + 3;
+        if (json.charAt(start) == '"') {
+            return json.substring(start + 1, json.indexOf('"', start + 1));
+        }
+        int end = start;
+        while (end < json.length() && json.charAt(end) != ',' && json.charAt(end) != '}') end++;
+        return json.substring(start, end);
+    }
+
+    /**
+     * 'Helper' that merges and sorts latency samples.
+     *
+     * @param samples of every client
+     * @return all samples in ascending order
+     */
+    private static long[] merge(List<long[]> samples) {
+        long[] merged = samples.stream().flatMapToLong(Arrays::stream).toArray();
+        Arrays.sort(merged);
+        return merged;
+    }
+
+    /**
+     * 'Helper' that prints the percentiles of sorted latency samples.
+     *
+     * @param name of the measurement
+     * @param sorted samples in nanoseconds
+     */
+    private static void report(String name, long[] sorted) {
+        if (sorted.length == 0) return;
+        System.out.printf("%-17s p50 %8.1f us   p99 %8.1f us   max %8.1f us%n", name,
+                percentile(sorted, 0.50) / 1e3, percentile(sorted, 0.99) / 1e3, sorted[sorted.length - 1] / 1e3);
+    }
+
+    /**
+     * 'Helper' that picks a percentile out of sorted samples.
+     *
+     * @param sorted samples
+     * @param fraction of the percentile, between 0 and 1
+     * @return sample at that percentile
+     */
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+}
@@ -13,25 +13,36 @@ public class HangmanMain  {
      * Reference to relative dictionary file location.
      */
     public static final String DICTIONARY_FILE_PATH = "dictionary";
+    /**
+     * Reference to relative location of the compiled binary dictionary, used instead of the plain-text
+     * dictionary when present. Produced by main.DictionaryFile.
+     */
+    public static final String BINARY_DICTIONARY_FILE_PATH = "dictionary.bin";
+    /**
+     * Reference to relative location of the opening book, used for the first guesses when present. Produced by
+     * main.OpeningBook.
+     */
+    public static final String OPENING_BOOK_FILE_PATH = "opening.book";
     /**
      * Whether to show count of current words considered by the game
      */
     public static final boolean SHOW_WORD_COUNT = true;
 
     /**
-     * Creates EvilHangman and starts game.
+     * Creates EvilHangman and starts game. Without a binary dictionary or an opening book, which needs every length,
+     * only the words of the chosen length are streamed from the plain-text dictionary, the first time that length is
+     * played, and kept for the games of that length that follow.
      *
      * @param args any command line arguments
-     * @throws FileNotFoundException if cannot find dictionary
+     * @throws IOException if cannot find or read dictionary
      */
-    public static void main(String[] args) throws FileNotFoundException {
+    public static void main(String[] args) throws IOException {
         System.out.println("Welcome to a totally normal game of Hangman.");
         System.out.println();
 
-        Scanner input = new Scanner(new File(DICTIONARY_FILE_PATH));
-        List<String> dictionary = new ArrayList<>();
-        while (input.hasNext())
-            dictionary.add(input.next().toLowerCase());
+        boolean streamed = !new File(BINARY_DICTIONARY_FILE_PATH).isFile() && !new File(OPENING_BOOK_FILE_PATH).isFile();
+        DictionarySnapshots snapshots = streamed ? null : loadSnapshots(0);
+        Map<Integer, DictionaryIndex> lengths = new HashMap<>();
 
         boolean playAgain = true;
 
@@ -43,8 +54,19 @@ public class HangmanMain  {
             int max = console.nextInt();
             System.out.println();
 
-            List<String> dictionary2 = Collections.unmodifiableList(dictionary);
-            HangmanManager hangman = new DubiousHangmanManager(dictionary2, length, max);
+            HangmanManager hangman;
+            if (streamed) {
+                DictionaryIndex words = lengths.get(length);
+                if (words == null) {
+                    words = DictionaryFile.streamText(new File(DICTIONARY_FILE_PATH).toPath(), Math.max(length, 0));
+                    lengths.put(length, words);
+                }
+                hangman = new DubiousHangmanManager(words, length, max, null, null);
+            } else {
+                snapshots.reloadIfModified();
+                DictionarySnapshots.Snapshot snapshot = snapshots.awaitReload();
+                hangman = new DubiousHangmanManager(snapshot.dictionary(), length, max, null, snapshot.book());
+            }
 
             if (hangman.words().isEmpty()) {
                 System.out.println("No words of that length in the dictionary. Would you like to try a new length?(Y/N)");
@@ -73,6 +95,54 @@ public class HangmanMain  {
         }
     }
 
+    /**
+     * Loads the dictionary, mapping the compiled binary dictionary if there is one and falling back to
+     * reading the plain-text dictionary otherwise.
+     *
+     * @return index of the dictionary
+     * @throws IOException if cannot find or read dictionary
+     */
+    public static DictionaryIndex loadDictionary() throws IOException {
+        File binary = new File(BINARY_DICTIONARY_FILE_PATH);
+        if (binary.isFile()) {
+            return DictionaryFile.map(binary.toPath());
+        }
+        return new DictionaryIndex(DictionaryFile.readText(new File(DICTIONARY_FILE_PATH).toPath()));
+    }
+
+    /**
+     * Loads the dictionary and its opening book as reloadable snapshots, watching the dictionary files for changes.
+     * The files must be replaced by moving new ones over them rather than rewritten in place, since the binary
+     * dictionary and the opening book of older versions stay mapped until their last game ends.
+     *
+     * @param cacheEntries upper bound on the partitions cached for each version, 0 for no cache
+     * @return snapshots of the dictionary, at version 1
+     * @throws IOException if cannot find or read dictionary, or read the opening book
+     */
+    public static DictionarySnapshots loadSnapshots(int cacheEntries) throws IOException {
+        return new DictionarySnapshots(version -> {
+            DictionaryIndex index = loadDictionary();
+            return new DictionarySnapshots.Snapshot(version, index,
+                    cacheEntries > 0 ? new PartitionCache(index, cacheEntries) : null, loadOpeningBook(index));
+        }, new File(DICTIONARY_FILE_PATH).toPath(), new File(BINARY_DICTIONARY_FILE_PATH).toPath(),
+                new File(OPENING_BOOK_FILE_PATH).toPath());
+    }
+
+    /**
+     * Loads the opening book for a dictionary if there is one.
+     *
+     * @param index of the dictionary the book was generated from
+     * @return opening book, or null if there is none
+     * @throws IOException if the book cannot be read or belongs to another dictionary
+     */
+    public static OpeningBook loadOpeningBook(DictionaryIndex index) throws IOException {
+        File book = new File(OPENING_BOOK_FILE_PATH);
+        if (book.isFile()) {
+            return OpeningBook.map(book.toPath(), index);
+        }
+        return null;
+    }
+
     /**
      * Takes guesses from user to progress the game and outputs guess matches.
      *
@@ -91,6 +161,8 @@ public class HangmanMain  {
             char ch = console.next().toLowerCase().charAt(0);
             if (hangman.guesses().contains(ch)) {
                 System.out.println("You already guessed that silly.");
+            } else if (!hangman.canGuess(ch)) {
+                System.out.println("That is not a letter, try again.");
             } else {
                 int count = hangman.record(ch);
                 if (count == 0) {
@@ -8,26 +8,80 @@ import java.util.*;
  */
 public class HangmanManager {
 
+    /**
+     * Whether games of a dictionary index keep their words as a main.GraphFamily over the main.WordGraph of the
+     * length rather than as a main.IndexedFamily, configurable through the "hangman.graph" system property.
+     */
+    static final boolean GRAPH = Boolean.parseBoolean(System.getProperty("hangman.graph", "false"));
+
     /**
      * Guesses left.
      */
     private int guesses;
     /**
-     * Current set of words considered.
+     * Current set of words considered, in ascending order. A TreeSet for games created from a plain collection
+     * of words, the indexed family itself for games of a dictionary index.
      */
-    protected TreeSet<String> words;
+    protected Set<String> words;
     /**
      * Guessed letters by user.
      */
     protected TreeSet<Character> letters;
+    /**
+     * Letters of the dictionary for games of a dictionary index, of the words of the length for the others.
+     */
+    private Alphabet alphabet;
+    /**
+     * Guessed letters of the alphabet as a bitset of their indexes.
+     */
+    private long[] guessed;
     /**
      * Current pattern for largest word list.
      */
     private String pattern;
     /**
-     * Mappings of word patterns to their families.
+     * Partition engine that groups the current words into pattern families.
      */
-    private TreeMap<String, TreeSet<String>> allPatterns;
+    private FamilyPartitioner partitioner;
+    /**
+     * Current family as a bitset over the dictionary's letter index, null for games created from a
+     * plain collection of words, which use the partitioner instead.
+     */
+    private IndexedFamily indexed;
+    /**
+     * Current family as constraints over the dictionary's word graph, for games of a dictionary index started with
+     * GRAPH set, null otherwise.
+     */
+    private GraphFamily graph;
+    /**
+     * Words of the current family holding each letter, for games created from a plain collection of words, null
+     * until first asked for. Indexed games keep theirs in the indexed family.
+     */
+    private LetterCounts counts;
+    /**
+     * Dictionary index the game was created from, null for games created from a plain collection of words.
+     */
+    private DictionaryIndex dictionary;
+    /**
+     * Partition results shared with other games of the same dictionary, null if not shared.
+     */
+    private PartitionCache cache;
+    /**
+     * Precomputed families of the first guesses of the dictionary, null if not used.
+     */
+    private OpeningBook book;
+    /**
+     * Metrics told about every call to record, GameMetrics.NONE if not instrumented.
+     */
+    private GameMetrics metrics = GameMetrics.NONE;
+    /**
+     * Picks the family to keep after each partition.
+     */
+    private FamilyStrategy strategy = FamilyStrategy.LARGEST;
+    /**
+     * Summary of the last partition handed to the strategy.
+     */
+    private final Partition partition = new Partition();
 
     /**
      * Creates new main.HangmanManager and initializes class variables.
@@ -40,6 +94,124 @@ public class HangmanManager {
      * proposed word length is less than 1
      */
     public HangmanManager(Collection<String> dictionary, int length, int guesses) {
+        this(length, guesses);
+        // Longer words do not fit the partitioner's keys, so a game of such a length has no words, like any other.
+        if (length <= FamilyPartitioner.MAX_LENGTH) {
+            for (String word : dictionary) {
+                if (word.length() ==  length) this.words.add(word);
+            }
+        }
+        // Only the letters of the bucket can ever be revealed, and reading them keeps the cost in step with the bucket.
+        setAlphabet(Alphabet.of(this.words));
+        partitioner = new FamilyPartitioner(this.words, length, this.alphabet);
+    }
+
+    /**
+     * Creates new main.HangmanManager from a shared dictionary index. Only the bucket of the requested
+     * length is copied, and since it is already sorted no re-sorting takes place.
+     *
+     * @param dictionary index of words to guess from
+     * @param length of word to guess
+     * @param guesses that player is granted
+     *
+     * @throws IllegalArgumentException if number of provided guesses is less than 0 or if
+     * proposed word length is less than 1
+     */
+    public HangmanManager(DictionaryIndex dictionary, int length, int guesses) {
+        this(dictionary, length, guesses, null);
+    }
+
+    /**
+     * Creates new main.HangmanManager from a shared dictionary index that looks partition results up in
+     * a cache shared with other games of the same dictionary before partitioning itself.
+     *
+     * @param dictionary index of words to guess from
+     * @param length of word to guess
+     * @param guesses that player is granted
+     * @param cache of partition results for the dictionary, null to always partition
+     *
+     * @throws IllegalArgumentException if number of provided guesses is less than 0, if
+     * proposed word length is less than 1 or if the cache belongs to another dictionary
+     */
+    public HangmanManager(DictionaryIndex dictionary, int length, int guesses, PartitionCache cache) {
+        this(dictionary, length, guesses, cache, null);
+    }
+
+    /**
+     * Creates new main.HangmanManager from a shared dictionary index that takes its first guesses from an
+     * opening book and looks later partition results up in a cache shared with other games of the same
+     * dictionary before partitioning itself.
+     *
+     * @param dictionary index of words to guess from
+     * @param length of word to guess
+     * @param guesses that player is granted
+     * @param cache of partition results for the dictionary, null to always partition
+     * @param book of the first guesses for the dictionary, null to partition from the first guess on
+     *
+     * @throws IllegalArgumentException if number of provided guesses is less than 0, if proposed word
+     * length is less than 1 or if the cache or book belongs to another dictionary
+     */
+    public HangmanManager(DictionaryIndex dictionary, int length, int guesses, PartitionCache cache,
+                          OpeningBook book) {
+        this(dictionary, length, guesses, cache, book, null);
+    }
+
+    /**
+     * Creates new main.HangmanManager from a shared dictionary index whose current words are already narrowed down
+     * to a family, such as when restoring a game.
+     *
+     * @param dictionary index of words to guess from
+     * @param length of word to guess
+     * @param guesses that player is granted
+     * @param cache of partition results for the dictionary, null to always partition
+     * @param book of the first guesses for the dictionary, null to partition from the first guess on
+     * @param family current words, all from the dictionary bucket of that length, null for the whole bucket
+     *
+     * @throws IllegalArgumentException if number of provided guesses is less than 0, if proposed word
+     * length is less than 1 or if the cache or book belongs to another dictionary
+     */
+    HangmanManager(DictionaryIndex dictionary, int length, int guesses, PartitionCache cache, OpeningBook book,
+                   SortedSet<String> family) {
+        this(length, guesses);
+        if ((cache != null && cache.dictionary() != dictionary) || (book != null && book.dictionary() != dictionary)) {
+            throw new IllegalArgumentException();
+        }
+        this.dictionary = dictionary;
+        this.cache = cache;
+        this.book = book;
+        setAlphabet(dictionary.alphabet());
+        if (length > FamilyPartitioner.MAX_LENGTH) {
+            // As for a collection, words too long for the partitioner's keys leave the game without words.
+            partitioner = new FamilyPartitioner(this.words, length, this.alphabet);
+            return;
+        }
+        if (family == null && GRAPH && dictionary.count(length) > 0) {
+            // Neither the letter index nor the bucket is loaded, the graph is all the game reads.
+            graph = new GraphFamily(dictionary.graph(length));
+            this.words = graph;
+            return;
+        }
+        LetterIndex letterIndex = dictionary.letters(length);
+        if (letterIndex == null) {
+            this.words.addAll(family == null ? dictionary.words(length) : family);
+            partitioner = new FamilyPartitioner(this.words, length, this.alphabet);
+        } else {
+            indexed = new IndexedFamily(letterIndex);
+            if (family != null && family.size() != letterIndex.bucket().size()) indexed.retain(family);
+            this.words = indexed;
+        }
+    }
+
+    /**
+     * 'Helper' constructor that validates the game settings and initializes an empty game.
+     *
+     * @param length of word to guess
+     * @param guesses that player is granted
+     *
+     * @throws IllegalArgumentException if number of provided guesses is less than 0 or if
+     * proposed word length is less than 1
+     */
+    private HangmanManager(int length, int guesses) {
         if (length < 1 || guesses < 1) {
             throw new IllegalArgumentException();
         }
@@ -50,10 +222,6 @@ public class HangmanManager {
         for (int i = 0; i < length; i++) {
             pattern += "-";
         }
-        for (String word : dictionary) {
-            if (word.length() ==  length) this.words.add(word);
-        }
-        allPatterns = new TreeMap<>();
     }
 
     /**
@@ -65,6 +233,78 @@ public class HangmanManager {
         return this.words;
     }
 
+    /**
+     * Counts the current words holding a letter, as a hint of how likely a guess is to hit.
+     *
+     * @param letter to count
+     * @return number of current words with the letter at least once, 0 for letters outside the alphabet
+     */
+    public int wordsWith(char letter) {
+        int index = this.alphabet.indexOf(letter);
+        return index < 0 ? 0 : counts().get(index);
+    }
+
+    /**
+     * Counts the current words holding each letter, as hints of how likely each guess is to hit. The counts are
+     * kept up to date as record narrows the words, so this costs one step per letter of the alphabet rather than a
+     * pass over the words.
+     *
+     * @return number of current words with the letter at least once, for every letter of the alphabet found in
+     * some current word, in letter order
+     */
+    public SortedMap<Character, Integer> letterCounts() {
+        LetterCounts counts = counts();
+        SortedMap<Character, Integer> hints = new TreeMap<>();
+        for (int index = 0; index < this.alphabet.size(); index++) {
+            if (counts.get(index) > 0) hints.put(this.alphabet.letter(index), counts.get(index));
+        }
+        return hints;
+    }
+
+    /**
+     * 'Helper' for wordsWith and letterCounts that counts the current words the first time it is called.
+     *
+     * @return words of the current family holding each letter
+     */
+    private LetterCounts counts() {
+        if (indexed != null) return indexed.letters();
+        if (graph != null) return graph.letters();
+        if (this.counts == null) {
+            this.counts = new LetterCounts(this.alphabet);
+            for (String word : this.words) {
+                this.counts.add(word, 1);
+            }
+        }
+        return this.counts;
+    }
+
+    /**
+     * 'Getter' for the dictionary.
+     *
+     * @return index the game was created from, null for games created from a plain collection
+     */
+    DictionaryIndex dictionary() {
+        return this.dictionary;
+    }
+
+    /**
+     * 'Getter' for the cache.
+     *
+     * @return partition results the game shares, null if not shared
+     */
+    PartitionCache cache() {
+        return this.cache;
+    }
+
+    /**
+     * 'Getter' for the book.
+     *
+     * @return opening book the game uses, null if not used
+     */
+    OpeningBook book() {
+        return this.book;
+    }
+
     /**
      * 'Getter' for guesses.
      *
@@ -83,6 +323,25 @@ public class HangmanManager {
         return this.letters;
     }
 
+    /**
+     * 'Getter' for the alphabet.
+     *
+     * @return letters of the dictionary
+     */
+    public Alphabet alphabet() {
+        return this.alphabet;
+    }
+
+    /**
+     * Checks whether a character may be guessed at all, whether or not it was guessed already.
+     *
+     * @param letter to check
+     * @return true if the letter is in the alphabet of the game or is a letter of any language
+     */
+    public boolean canGuess(char letter) {
+        return this.alphabet.contains(letter) || Character.isLetter(letter);
+    }
+
     /**
      * 'Getter' for current pattern.
      *
@@ -96,6 +355,75 @@ public class HangmanManager {
         return this.pattern.replace("", " ").trim();
     }
 
+    /**
+     * Instruments record, which then tells the metrics how long each of its phases takes and how the words split.
+     *
+     * @param metrics to tell, GameMetrics.NONE to stop instrumenting
+     */
+    public void setMetrics(GameMetrics metrics) {
+        this.metrics = Objects.requireNonNull(metrics);
+    }
+
+    /**
+     * 'Getter' for metrics.
+     *
+     * @return metrics told about every call to record
+     */
+    GameMetrics metrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Replaces the strategy that picks the family to keep after each guess. Snapshots and game logs do not keep the
+     * strategy, and games restored from them start with the strategy of their class.
+     *
+     * @param strategy to pick families with
+     */
+    public void setStrategy(FamilyStrategy strategy) {
+        this.strategy = Objects.requireNonNull(strategy);
+    }
+
+    /**
+     * 'Getter' for the strategy.
+     *
+     * @return strategy picking the family to keep after each guess
+     */
+    public FamilyStrategy strategy() {
+        return this.strategy;
+    }
+
+    /**
+     * Puts the game back into a saved state. The current words must already be the family of that state.
+     *
+     * @param guessesLeft wrong guesses the player has left
+     * @param guessed letters the player guessed so far
+     * @param pattern of the current family, one character per position
+     * @throws IllegalArgumentException if the pattern has the wrong length or guesses left is negative
+     */
+    void restore(int guessesLeft, Collection<Character> guessed, String pattern) {
+        if (guessesLeft < 0 || pattern.length() != this.pattern.length()) {
+            throw new IllegalArgumentException();
+        }
+        this.guesses = guessesLeft;
+        this.letters.clear();
+        Arrays.fill(this.guessed, 0);
+        for (char letter : guessed) {
+            this.letters.add(letter);
+            int index = this.alphabet.indexOf(letter);
+            if (index >= 0) this.guessed[index >>> 6] |= 1L << index;
+        }
+        this.pattern = pattern;
+    }
+
+    /**
+     * 'Getter' for the current pattern without the spacing added by pattern().
+     *
+     * @return current pattern, one character per position
+     */
+    String rawPattern() {
+        return this.pattern;
+    }
+
     /**
      * Takes user guess and separates current word list off of pattern families and returns
      * the number of matching characters with the largest pattern family.
@@ -103,69 +431,218 @@ public class HangmanManager {
      * @param guess that user provided
      * @return number of character matches to the 'target' word
      *
-     * @throws IllegalStateException if the number of guesses left is less than 1 or the current
-     * list of words is empty
-     * @throws IllegalArgumentException if the current list of words is empty and the provided
-     * character has already been guessed
+     * @throws IllegalStateException if the number of guesses left is less than 1, if the current
+     * list of words is empty or if the strategy picks no family of the partition
+     * @throws IllegalArgumentException if the provided character has already been guessed or cannot be guessed,
+     * as told by canGuess
      */
     public int record(char guess) {
+        int index = this.alphabet.indexOf(guess);
         if (guessesLeft() < 1 || this.words.isEmpty()) {
             throw new IllegalStateException();
-        } else if (!words.isEmpty() && letters.contains(guess)) {
+        } else if (index < 0 ? !Character.isLetter(guess) || this.letters.contains(guess)
+                : (this.guessed[index >>> 6] & 1L << index) != 0) {
             throw new IllegalArgumentException();
         }
         this.letters.add(guess);
-        buildWordMap(guess);
+        if (index < 0) {
+            // No word of the dictionary has the letter, so every word stays in the family and the guess misses.
+            this.guesses--;
+            return 0;
+        }
+        this.guessed[index >>> 6] |= 1L << index;
+        long start = startTimer();
         if (words.size() == 1) {
             finalWordGuesses(guess);
+            stopTimer(GameMetrics.Phase.FINAL_WORD_GUESSES, start);
+        } else if ((this.cache == null && (this.book == null || this.letters.size() > this.book.depth()))
+                || !this.strategy.keepsLargest(this.guesses)) {
+            buildWordMap(guess);
+            findLargestList(guess);
         } else {
-            findLargestList();
+            findStoredList(guess);
         }
-        return countMatches(guess);
+        start = startTimer();
+        int matches = countMatches(guess);
+        stopTimer(GameMetrics.Phase.COUNT_MATCHES, start);
+        return matches;
+    }
+
+    /**
+     * 'Helper' for the constructors that sets the alphabet and sizes the guessed letters to it.
+     *
+     * @param alphabet letters the player may guess
+     */
+    private void setAlphabet(Alphabet alphabet) {
+        this.alphabet = alphabet;
+        this.guessed = new long[(alphabet.size() + Long.SIZE - 1) / Long.SIZE];
     }
 
+    /**
+     * 'Helper' for record that reads the clock if the game is instrumented.
+     *
+     * @return current time in nanoseconds, 0 if not instrumented
+     */
+    private long startTimer() {
+        return this.metrics == GameMetrics.NONE ? 0 : System.nanoTime();
+    }
 
     /**
-     * 'Helper' for record that creates the pattern mappings to compare against.
+     * 'Helper' for record that tells the metrics how long a phase took if the game is instrumented.
+     *
+     * @param phase that ran
+     * @param start of the phase, as returned by startTimer
+     */
+    private void stopTimer(GameMetrics.Phase phase, long start) {
+        if (this.metrics != GameMetrics.NONE) this.metrics.phase(phase, System.nanoTime() - start);
+    }
+
+    /**
+     * 'Helper' for record that takes the pattern for the guess from the opening book or the shared
+     * cache, or partitions and stores the result for other games if neither holds it yet. A stored
+     * pattern gives the key of the family, so the current words are narrowed down to it in place
+     * without counting the other families.
      *
      * @param guess that user provided
      */
-    private void buildWordMap (char guess) {
-        String tempPattern = "";
-        for (String word : this.words) {
-            for (int i = 0; i < word.length(); i++) {
-                if (word.charAt(i) == guess) {
-                    tempPattern += guess;
-                } else if (this.letters.contains(word.charAt(i))) {
-                    tempPattern += word.charAt(i);
-                } else {
-                    tempPattern += "-";
+    private void findStoredList (char guess) {
+        long start = startTimer();
+        String key = PartitionCache.keyOf(this.pattern, this.letters, guess);
+        String pattern = null;
+        if (book != null && this.letters.size() <= book.depth()) {
+            pattern = book.get(key, this.pattern.length());
+        }
+        if (pattern == null && cache != null) {
+            pattern = cache.get(key);
+        }
+        if (pattern == null) {
+            buildWordMap(guess);
+            findLargestList(guess);
+            if (cache != null) cache.put(key, this.pattern);
+        } else {
+            long family = FamilyPartitioner.keyOf(pattern, guess);
+            if (indexed != null) {
+                indexed.narrow(guess, family);
+            } else if (graph != null) {
+                graph.narrow(guess, family);
+            } else {
+                Iterator<String> iterator = this.words.iterator();
+                while (iterator.hasNext()) {
+                    String word = iterator.next();
+                    if (FamilyPartitioner.keyOf(word, guess) != family) drop(iterator, word);
                 }
             }
-            TreeSet<String> tempWords = allPatterns.get(tempPattern);
-            if (tempWords == null) tempWords = new TreeSet<>();
-            tempWords.add(word);
-            allPatterns.put(tempPattern, tempWords);
-            tempPattern = "";
+            this.pattern = pattern;
+            stopTimer(GameMetrics.Phase.FIND_STORED_LIST, start);
+            if (this.metrics != GameMetrics.NONE) this.metrics.narrowed(this.words.size());
         }
     }
 
     /**
-     * 'Helper' for record that finds the largest word list amongst the pattern families.
+     * 'Helper' for record that creates the pattern mappings to compare against.
+     *
+     * @param guess that user provided
      */
-    private void findLargestList () {
-        int size = 0;
-        TreeSet<String> auxWordList = new TreeSet<>();
-        for (String variant : allPatterns.keySet()) {
-            TreeSet<String> tempWordList = allPatterns.get(variant);
-            if(tempWordList.size() > size) {
-                size = tempWordList.size();
-                this.pattern = variant;
-                auxWordList = tempWordList;
+    private void buildWordMap (char guess) {
+        long start = startTimer();
+        if (indexed != null) {
+            indexed.partition(guess);
+        } else if (graph != null) {
+            graph.partition(guess);
+        } else {
+            partitioner.partition(this.words, guess);
+        }
+        stopTimer(GameMetrics.Phase.BUILD_WORD_MAP, start);
+        if (this.metrics != GameMetrics.NONE) {
+            this.metrics.partitioned(this.words.size(), familyCounts().families());
+        }
+    }
+
+    /**
+     * 'Helper' for record that finds the largest word list amongst the pattern families and
+     * narrows the current words down to it.
+     *
+     * @param guess that user provided
+     */
+    private void findLargestList (char guess) {
+        long start = startTimer();
+        long family = chooseFamily(guess);
+        if (indexed != null) {
+            indexed.narrow(family);
+        } else if (graph != null) {
+            graph.narrow(family);
+        } else {
+            Iterator<String> iterator = this.words.iterator();
+            for (int i = 0; iterator.hasNext(); i++) {
+                String word = iterator.next();
+                if (!partitioner.inFamily(i, family)) drop(iterator, word);
             }
+            partitioner.narrow(family);
+        }
+        this.pattern = FamilyPartitioner.reveal(this.pattern, family, guess);
+        stopTimer(GameMetrics.Phase.FIND_LARGEST_LIST, start);
+        if (this.metrics != GameMetrics.NONE) this.metrics.narrowed(this.words.size());
+    }
+
+    /**
+     * 'Helper' for findStoredList and findLargestList that removes a word leaving the family, and takes it out of
+     * the letter counts if they were asked for.
+     *
+     * @param iterator over the current words, at the word
+     * @param word leaving the family
+     */
+    private void drop(Iterator<String> iterator, String word) {
+        iterator.remove();
+        if (this.counts != null) this.counts.add(word, -1);
+    }
+
+    /**
+     * 'Helper' for record that picks the family to narrow the current words down to once they have been
+     * partitioned for a guess. Asks the strategy, subclasses in this package may pick another way.
+     *
+     * @param guess that user provided
+     * @return key of the family, as built by main.FamilyPartitioner
+     * @throws IllegalStateException if the strategy picks a key that is no family of the partition
+     */
+    long chooseFamily(char guess) {
+        this.partition.reset(familyCounts(), guess, this.pattern.length(), this.words.size(), this.guesses);
+        long family = this.strategy.choose(this.partition);
+        if (this.partition.sizeOf(family) == 0) {
+            throw new IllegalStateException("strategy " + this.strategy + " chose " + Long.toBinaryString(family)
+                    + ", which is no family of the partition");
+        }
+        return family;
+    }
+
+    /**
+     * 'Helper' that finds the families of the last partition, whichever engine made it.
+     *
+     * @return words per family of the last partition
+     */
+    private FamilyCounts familyCounts() {
+        if (indexed != null) return indexed.counts();
+        return graph != null ? graph.counts() : partitioner.counts();
+    }
+
+    /**
+     * Narrows the current words down to a single word of the current family, for subclasses that pick
+     * the family themselves.
+     *
+     * @param word of the current family to keep
+     */
+    protected void keepOnly(String word) {
+        if (indexed != null) {
+            indexed.retain(Collections.singleton(word));
+        } else if (graph != null) {
+            // A single word is no pattern of the graph, so the game goes on with the word as a plain collection.
+            graph = null;
+            this.words = new TreeSet<>(Collections.singleton(word));
+            partitioner = new FamilyPartitioner(this.words, this.pattern.length(), this.alphabet);
+        } else {
+            this.words.clear();
+            this.words.add(word);
+            this.counts = null;
         }
-        this.words = auxWordList;
-        allPatterns.clear();
     }
 
     /**
@@ -191,7 +668,7 @@ public class HangmanManager {
      */
     private void finalWordGuesses(char guess) {
         StringBuilder modifiedPattern = new StringBuilder(this.pattern);
-        String lastWord = this.words.first();
+        String lastWord = this.words.iterator().next();
         for (int i = 0; i < lastWord.length(); i++) {
             if (lastWord.charAt(i) == guess) {
                 modifiedPattern.setCharAt(i, guess);
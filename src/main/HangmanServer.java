@@ -0,0 +1,561 @@
+package main;
+
+import com.sun.net.httpserver.*;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Server mode for DubiousHangman. Hosts many simultaneous games over HTTP on the JDK's built-in HttpServer, with one
+ * main.HangmanManager or main.DubiousHangmanManager per session and a single main.DictionaryIndex shared by all of them.
+ *
+ * Endpoints, all answering with a JSON object describing the game:
+ *
+ *     POST   /games?length=5&guesses=7[&dubious=false]   starts a game
+ *     POST   /games?length=5&guesses=7&lookahead=3        starts a game that looks 3 guesses ahead
+ *     GET    /games/{id}                                fetches the state of a game
+ *     POST   /games/{id}/guess?letter=e                 records a guess
+ *     POST   /games/{id}/undo                           takes back the last guess, when games are logged
+ *     DELETE /games/{id}                                ends a game
+ *     GET    /stats                                     reports session, partition cache and record metrics
+ *
+ * Games share a main.PartitionCache, so players reaching the same state with the same guess only pay for the first
+ * partition. The dictionary comes from main.DictionarySnapshots: the server checks its files every
+ * RELOAD_CHECK_SECONDS, reloads them in the background when they change and starts new games from the new version,
+ * while games already running keep theirs. Sessions live in a main.SessionRegistry, which serializes the requests of
+ * one game on that game alone and expires games left idle for SESSION_IDLE_MINUTES. Given a main.GameLog, the server
+ * logs every game, picks up the games the log holds when it starts, leaving out those whose words have changed since,
+ * and lets players undo guesses.
+ */
+public class HangmanServer {
+
+    /**
+     * Port the server listens on when none is given.
+     */
+    public static final int DEFAULT_PORT = 8080;
+    /**
+     * Upper bound on the partitions cached across sessions.
+     */
+    public static final int CACHE_ENTRIES = 10000;
+    /**
+     * Milliseconds between flushes of the game log.
+     */
+    public static final int LOG_FLUSH_MILLIS = 100;
+    /**
+     * Minutes after which a game nobody plays is ended.
+     */
+    public static final int SESSION_IDLE_MINUTES = 30;
+    /**
+     * Seconds between checks of the dictionary files for changes.
+     */
+    public static final int RELOAD_CHECK_SECONDS = 10;
+
+    static {
+        // Without TCP_NODELAY every small response waits out a delayed ACK between its headers and its body.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    /**
+     * Versions of the dictionary, along with their partition caches and opening books.
+     */
+    private final DictionarySnapshots snapshots;
+    /**
+     * Metrics of record shared by every session.
+     */
+    private final MetricsRegistry metrics;
+    /**
+     * Live sessions.
+     */
+    private final SessionRegistry sessions;
+    /**
+     * Log of every game, null if games are not logged.
+     */
+    private final GameLog log;
+    /**
+     * Expires idle sessions and flushes the game log periodically.
+     */
+    private final ScheduledExecutorService timer;
+    /**
+     * Underlying HTTP server.
+     */
+    private final HttpServer server;
+    /**
+     * Executor running one task per exchange.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Creates new main.HangmanServer bound to a port. The server does not accept requests until started.
+     *
+     * @param dictionary shared by every game
+     * @param book of the first guesses for the dictionary, null to partition from the first guess on
+     * @param port to listen on, 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public HangmanServer(DictionaryIndex dictionary, OpeningBook book, int port) throws IOException {
+        this(dictionary, book, port, null);
+    }
+
+    /**
+     * Creates new main.HangmanServer bound to a port that logs its games and resumes the games already in the log.
+     * The server does not accept requests until started.
+     *
+     * @param dictionary shared by every game
+     * @param book of the first guesses for the dictionary, null to partition from the first guess on
+     * @param port to listen on, 0 for any free port
+     * @param log of the games, opened against the same dictionary, null to not log games
+     * @throws IOException if the port cannot be bound
+     */
+    public HangmanServer(DictionaryIndex dictionary, OpeningBook book, int port, GameLog log) throws IOException {
+        this(DictionarySnapshots.of(dictionary, CACHE_ENTRIES, book), port, log);
+    }
+
+    /**
+     * Creates new main.HangmanServer bound to a port that starts games from the current version of a dictionary and
+     * reloads the dictionary when its files change. The server does not accept requests until started.
+     *
+     * @param snapshots versions of the dictionary, each with a partition cache
+     * @param port to listen on, 0 for any free port
+     * @param log of the games, opened against the current version, null to not log games
+     * @throws IOException if the port cannot be bound
+     */
+    public HangmanServer(DictionarySnapshots snapshots, int port, GameLog log) throws IOException {
+        this.snapshots = snapshots;
+        this.metrics = new MetricsRegistry();
+        this.sessions = new SessionRegistry(Duration.ofMinutes(SESSION_IDLE_MINUTES),
+                log != null ? (id, game) -> log.end(id) : null);
+        this.log = log;
+        this.timer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "hangman-server-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long tickMillis = Math.max(1, TimeUnit.MINUTES.toMillis(SESSION_IDLE_MINUTES) / SessionRegistry.SLOTS);
+        this.timer.scheduleWithFixedDelay(this.sessions::expire, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        this.timer.scheduleWithFixedDelay(snapshots::reloadIfModified, RELOAD_CHECK_SECONDS, RELOAD_CHECK_SECONDS,
+                TimeUnit.SECONDS);
+        if (log != null) {
+            for (Map.Entry<Long, HangmanManager> game : log.recover().entrySet()) {
+                game.getValue().setMetrics(this.metrics);
+                this.sessions.add(game.getKey(), game.getValue());
+            }
+            this.timer.scheduleWithFixedDelay(log::flush, LOG_FLUSH_MILLIS, LOG_FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.executor = newThreadPerTaskExecutor();
+        this.server.setExecutor(this.executor);
+        this.server.createContext("/games", this::handle);
+        this.server.createContext("/stats", exchange -> respond(exchange, 200, stats()));
+    }
+
+    /**
+     * Starts a server on the port given as first argument, or on DEFAULT_PORT, logging its games to the file given as
+     * second argument, if any.
+     *
+     * @param args optional port and game log
+     * @throws IOException if cannot find dictionary or opening book, open the game log or bind the port
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        DictionarySnapshots snapshots = HangmanMain.loadSnapshots(CACHE_ENTRIES);
+        DictionarySnapshots.Snapshot first = snapshots.current();
+        PartitionCache replayCache = new PartitionCache(first.dictionary(), CACHE_ENTRIES);
+        GameLog log = args.length > 1 ? GameLog.open(Paths.get(args[1]), first.dictionary(), replayCache,
+                first.book(), GameLog.DEFAULT_CHECKPOINT_INTERVAL) : null;
+        HangmanServer server = new HangmanServer(snapshots, port, log);
+        if (log != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.stop();
+                try {
+                    log.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }));
+            System.out.println("Resumed " + server.sessions() + " games from " + args[1]);
+        }
+        server.start();
+        System.out.println("Hangman server listening on port " + server.port());
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for every task. Virtual threads are looked up
+     * reflectively so the project still builds on older JDKs, where a cached pool of platform threads is used.
+     *
+     * @return executor running one thread per task
+     */
+    static ExecutorService newThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        this.server.start();
+    }
+
+    /**
+     * Stops accepting requests and shuts the executor down, flushing the game log if there is one.
+     */
+    public void stop() {
+        this.server.stop(0);
+        this.executor.shutdown();
+        this.timer.shutdown();
+        if (this.log != null) {
+            this.log.flush();
+        }
+    }
+
+    /**
+     * 'Getter' for the bound port.
+     *
+     * @return port the server listens on
+     */
+    public int port() {
+        return this.server.getAddress().getPort();
+    }
+
+    /**
+     * 'Getter' for the number of live sessions.
+     *
+     * @return session count
+     */
+    public int sessions() {
+        return this.sessions.size();
+    }
+
+    /**
+     * Routes an exchange to its endpoint and writes the response.
+     *
+     * @param exchange to answer
+     * @throws IOException if the response cannot be written
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        String[] path = exchange.getRequestURI().getPath().split("/");
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String method = exchange.getRequestMethod();
+        int status = 200;
+        String body;
+        try {
+            if (path.length == 2 && method.equals("POST")) {
+                body = startGame(query);
+                status = 201;
+            } else if (path.length == 3 && method.equals("GET")) {
+                body = fetchState(path[2]);
+            } else if (path.length == 4 && path[3].equals("guess") && method.equals("POST")) {
+                body = guess(path[2], query);
+            } else if (path.length == 4 && path[3].equals("undo") && method.equals("POST") && this.log != null) {
+                body = undo(path[2]);
+            } else if (path.length == 3 && method.equals("DELETE")) {
+                body = endGame(path[2]);
+            } else {
+                status = 404;
+                body = error("Unknown endpoint");
+            }
+        } catch (NoSuchElementException e) {
+            status = 404;
+            body = error("Unknown game");
+        } catch (IllegalArgumentException e) {
+            status = 400;
+            body = error("Invalid request");
+        } catch (IllegalStateException e) {
+            status = 409;
+            body = error(e.getMessage() != null ? e.getMessage() : "Game is over");
+        }
+        respond(exchange, status, body);
+    }
+
+    /**
+     * 'Helper' that writes a JSON response.
+     *
+     * @param exchange to answer
+     * @param status code of the response
+     * @param body JSON object
+     * @throws IOException if the response cannot be written
+     */
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Reports session counters, the version of the dictionary new games start from, the counters of its partition
+     * cache and the metrics of record.
+     *
+     * @return JSON object of the counters
+     */
+    private String stats() {
+        StringBuilder phases = new StringBuilder();
+        for (GameMetrics.Phase phase : GameMetrics.Phase.values()) {
+            phases.append(phases.length() == 0 ? "{" : ",").append('"').append(phase.label()).append("\":")
+                    .append(histogram(this.metrics.phase(phase)));
+        }
+        DictionarySnapshots.Snapshot snapshot = this.snapshots.current();
+        return "{\"sessions\":" + this.sessions.size()
+                + ",\"dictionaryVersion\":" + snapshot.version()
+                + ",\"cacheEntries\":" + snapshot.cache().size()
+                + ",\"cacheHits\":" + snapshot.cache().hits()
+                + ",\"cacheMisses\":" + snapshot.cache().misses()
+                + ",\"cacheEvictions\":" + snapshot.cache().evictions()
+                + ",\"phaseNanos\":" + phases + "}"
+                + ",\"wordsScanned\":" + histogram(this.metrics.wordsScanned())
+                + ",\"families\":" + histogram(this.metrics.families())
+                + ",\"familySize\":" + histogram(this.metrics.familySize())
+                + ",\"lastGuessesForced\":" + this.metrics.lastGuessesForced() + "}";
+    }
+
+    /**
+     * 'Helper' that summarizes a histogram as JSON.
+     *
+     * @param histogram to summarize
+     * @return JSON object with the count, mean, p50, p99 and max of the histogram
+     */
+    private static String histogram(Histogram histogram) {
+        return String.format(Locale.ROOT, "{\"count\":%d,\"mean\":%.1f,\"p50\":%d,\"p99\":%d,\"max\":%d}",
+                histogram.count(), histogram.mean(), histogram.percentile(0.5), histogram.percentile(0.99),
+                histogram.max());
+    }
+
+    /**
+     * Starts a game.
+     *
+     * @param query with the word length, the guesses granted, whether the game is dubious and how many guesses
+     * it looks ahead, if any
+     * @return state of the new game
+     * @throws IllegalArgumentException if a parameter is missing or invalid, or if no words have that length
+     */
+    private String startGame(Map<String, String> query) {
+        int length = intParameter(query, "length");
+        int guesses = intParameter(query, "guesses");
+        DictionarySnapshots.Snapshot snapshot = this.snapshots.current();
+        HangmanManager hangman;
+        if (query.containsKey("lookahead")) {
+            hangman = new LookaheadHangmanManager(snapshot.dictionary(), length, guesses,
+                    intParameter(query, "lookahead"), LookaheadHangmanManager.DEFAULT_BUDGET);
+        } else if (Boolean.parseBoolean(query.getOrDefault("dubious", "true"))) {
+            hangman = new DubiousHangmanManager(snapshot.dictionary(), length, guesses, snapshot.cache(),
+                    snapshot.book());
+        } else {
+            hangman = new HangmanManager(snapshot.dictionary(), length, guesses, snapshot.cache(), snapshot.book());
+        }
+        if (hangman.words().isEmpty()) {
+            throw new IllegalArgumentException();
+        }
+        hangman.setMetrics(this.metrics);
+        return this.sessions.create(hangman, session -> {
+            if (this.log != null) {
+                this.log.start(session.id(), hangman);
+            }
+            return state(session.id(), hangman, "");
+        });
+    }
+
+    /**
+     * Fetches the state of a game.
+     *
+     * @param id of the game
+     * @return state of the game
+     * @throws NoSuchElementException if there is no such game
+     */
+    private String fetchState(String id) {
+        return this.sessions.withSession(number(id), session -> state(session.id(), session.game(), ""));
+    }
+
+    /**
+     * Records a guess. Guesses within one game are serialized by the session registry.
+     *
+     * @param id of the game
+     * @param query with the guessed letter
+     * @return state of the game after the guess, with the number of matches and the time spent in record
+     * @throws NoSuchElementException if there is no such game
+     * @throws IllegalArgumentException if the letter is missing or was already guessed
+     * @throws IllegalStateException if the game is over
+     */
+    private String guess(String id, Map<String, String> query) {
+        long number = number(id);
+        String letter = query.get("letter");
+        if (letter == null || letter.length() != 1) {
+            throw new IllegalArgumentException();
+        }
+        char guess = Character.toLowerCase(letter.charAt(0));
+        return this.sessions.withSession(number, session -> {
+            HangmanManager hangman = session.game();
+            if (over(hangman)) {
+                throw new IllegalStateException();
+            }
+            long start = System.nanoTime();
+            int matches = this.log != null ? this.log.record(number, hangman, guess) : hangman.record(guess);
+            long elapsed = System.nanoTime() - start;
+            return state(number, hangman, ",\"matches\":" + matches + ",\"recordNanos\":" + elapsed);
+        });
+    }
+
+    /**
+     * Takes back the last guess of a game by rebuilding it from the game log.
+     *
+     * @param id of the game
+     * @return state of the game before its last guess
+     * @throws NoSuchElementException if there is no such game
+     * @throws IllegalStateException if the game has no guesses to take back
+     */
+    private String undo(String id) {
+        return this.sessions.withSession(number(id), session -> {
+            if (session.game().guesses().isEmpty()) {
+                throw new IllegalStateException("Nothing to undo");
+            }
+            HangmanManager undone = this.log.undo(session.id());
+            undone.setMetrics(this.metrics);
+            session.replace(undone);
+            return state(session.id(), undone, "");
+        });
+    }
+
+    /**
+     * Ends a game and forgets its session.
+     *
+     * @param id of the game
+     * @return final state of the game
+     * @throws NoSuchElementException if there is no such game
+     */
+    private String endGame(String id) {
+        return this.sessions.end(number(id), session -> {
+            if (this.log != null) {
+                this.log.end(session.id());
+            }
+            return state(session.id(), session.game(), "");
+        });
+    }
+
+    /**
+     * 'Helper' that parses a session id.
+     *
+     * @param id of the game, in base 36
+     * @return number of the game
+     * @throws NoSuchElementException if the id cannot be a game's
+     */
+    private static long number(String id) {
+        try {
+            return Long.parseLong(id, 36);
+        } catch (NumberFormatException e) {
+            throw new NoSuchElementException();
+        }
+    }
+
+    /**
+     * 'Helper' that checks whether a game is over.
+     *
+     * @param hangman of the game
+     * @return true if the player has no guesses left or has revealed the whole word
+     */
+    private static boolean over(HangmanManager hangman) {
+        return hangman.guessesLeft() < 1 || !hangman.pattern().contains("-");
+    }
+
+    /**
+     * 'Helper' that describes a game as JSON. Must be called while holding the manager's lock.
+     *
+     * @param id of the game
+     * @param hangman of the game
+     * @param extra members to append, each starting with a comma
+     * @return JSON object
+     */
+    private static String state(long id, HangmanManager hangman, String extra) {
+        StringBuilder json = new StringBuilder("{\"id\":\"").append(Long.toString(id, 36)).append('"');
+        json.append(",\"pattern\":\"").append(escape(hangman.pattern())).append('"');
+        json.append(",\"guessesLeft\":").append(hangman.guessesLeft());
+        json.append(",\"guessed\":\"");
+        for (char letter : hangman.guesses()) {
+            json.append(escape(String.valueOf(letter)));
+        }
+        json.append('"');
+        boolean over = over(hangman);
+        json.append(",\"over\":").append(over);
+        if (over) {
+            json.append(",\"won\":").append(hangman.guessesLeft() > 0);
+            json.append(",\"answer\":\"").append(escape(hangman.words().iterator().next())).append('"');
+        }
+        return json.append(extra).append('}').toString();
+    }
+
+    /**
+     * 'Helper' that escapes text for a JSON string.
+     *
+     * @param text to escape
+     * @return text safe to place between quotes
+     */
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char letter = text.charAt(i);
+            if (letter == '"' || letter == '\\') {
+                escaped.append('\\').append(letter);
+            } else if (letter < 0x20) {
+                escaped.append(String.format("\\u%04x", (int) letter));
+            } else {
+                escaped.append(letter);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * 'Helper' that builds an error body.
+     *
+     * @param message describing the error
+     * @return JSON object
+     */
+    private static String error(String message) {
+        return "{\"error\":\"" + message + "\"}";
+    }
+
+    /**
+     * 'Helper' that reads a required integer parameter.
+     *
+     * @param query parameters
+     * @param name of the parameter
+     * @return value of the parameter
+     * @throws IllegalArgumentException if the parameter is missing or not an integer
+     */
+    private static int intParameter(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException();
+        }
+        return Integer.parseInt(value);
+    }
+
+    /**
+     * 'Helper' that splits a raw query string into decoded parameters.
+     *
+     * @param rawQuery of the request URI, may be null
+     * @return parameters by name
+     */
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) return query;
+        for (String pair : rawQuery.split("&")) {
+            int split = pair.indexOf('=');
+            if (split > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, split), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(split + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+}
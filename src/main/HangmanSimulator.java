@@ -0,0 +1,371 @@
+package main;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Headless self-play for throughput testing. Bots play games of every word length against main.HangmanManager and
+ * main.DubiousHangmanManager on a pool of worker threads, and one CSV row is written per bot, mode and length as soon
+ * as all of its games are done. Only running totals are kept, so the number of games is not bounded by memory.
+ *
+ * Usage: java main.HangmanSimulator output.csv [games per length] [bots] [modes] [guesses] [threads]
+ * where bots is a comma separated list of frequency, random and oracle, and modes of greedy, dubious and the
+ * main.FamilyStrategy names entropy and fewest.
+ */
+public class HangmanSimulator {
+
+    /**
+     * Games played by one task.
+     */
+    private static final int BATCH_SIZE = 256;
+    /**
+     * Batches queued per thread, so that tasks are created as threads free up rather than all up front.
+     */
+    private static final int BATCHES_PER_THREAD = 4;
+
+    /**
+     * CSV header.
+     */
+    private static final String HEADER = "bot,mode,length,guesses,games,wins,win_rate,avg_guesses,avg_misses,"
+            + "games_per_thread_second,avg_record_ns,max_record_ns";
+
+    /**
+     * Dictionary every game is played with.
+     */
+    private final DictionaryIndex dictionary;
+    /**
+     * Opening book of the dictionary, null if there is none.
+     */
+    private final OpeningBook book;
+    /**
+     * Wrong guesses granted per game.
+     */
+    private final int guesses;
+
+    /**
+     * Creates new main.HangmanSimulator.
+     *
+     * @param dictionary every game is played with
+     * @param book of the first guesses for the dictionary, null to partition from the first guess on
+     * @param guesses that bots are granted per game
+     */
+    public HangmanSimulator(DictionaryIndex dictionary, OpeningBook book, int guesses) {
+        if (guesses < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.dictionary = dictionary;
+        this.book = book;
+        this.guesses = guesses;
+    }
+
+    /**
+     * Runs the simulation.
+     *
+     * @param args output file, then optional games per length, bots, modes, guesses and threads
+     * @throws IOException if cannot read dictionary or write output
+     * @throws InterruptedException if interrupted while waiting for games
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.out.println("Usage: java main.HangmanSimulator <output.csv> [games per length] "
+                    + "[frequency,random,oracle] [greedy,dubious] [guesses] [threads]");
+            return;
+        }
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+        List<String> bots = Arrays.asList((args.length > 2 ? args[2] : "frequency,random,oracle").split(","));
+        List<String> modes = Arrays.asList((args.length > 3 ? args[3] : "greedy,dubious").split(","));
+        int guesses = args.length > 4 ? Integer.parseInt(args[4]) : 8;
+        int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+
+        DictionaryIndex dictionary = HangmanMain.loadDictionary();
+        HangmanSimulator simulator = new HangmanSimulator(dictionary, HangmanMain.loadOpeningBook(dictionary),
+                guesses);
+        try (Writer output = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(args[0]),
+                StandardCharsets.UTF_8))) {
+            long start = System.nanoTime();
+            Tally total = simulator.run(bots, modes, games, threads, output);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%d games in %.2f s (%.0f games/s), %d guesses recorded (%.0f ns/record)%n",
+                    total.games, seconds, total.games / seconds, total.records,
+                    total.records == 0 ? 0.0 : (double) total.recordNanos / total.records);
+        }
+    }
+
+    /**
+     * Plays games of every word length of the dictionary for every bot and mode, writing a CSV row per bot, mode
+     * and length as soon as its games are done.
+     *
+     * @param bots names of the guessers to play with
+     * @param modes greedy for main.HangmanManager, dubious for main.DubiousHangmanManager, entropy or fewest for
+     * main.HangmanManager with that main.FamilyStrategy
+     * @param games per bot, mode and length
+     * @param threads to play on
+     * @param output to write CSV rows to, starting with a header
+     * @return totals over every game
+     * @throws IOException if output cannot be written
+     * @throws InterruptedException if interrupted while waiting for games
+     * @throws IllegalArgumentException if a bot or mode is unknown or games or threads is less than 1
+     */
+    public Tally run(List<String> bots, List<String> modes, int games, int threads, Writer output)
+            throws IOException, InterruptedException {
+        if (games < 1 || threads < 1) {
+            throw new IllegalArgumentException();
+        }
+        for (String mode : modes) {
+            if (!mode.equals("greedy") && !mode.equals("dubious")) FamilyStrategy.named(mode);
+        }
+        List<Cell> cells = new ArrayList<>();
+        for (String bot : bots) {
+            Guesser guesser = Guesser.named(bot);
+            for (String mode : modes) {
+                for (int length = 1; length <= Math.min(this.dictionary.maxLength(), FamilyPartitioner.MAX_LENGTH);
+                     length++) {
+                    if (this.dictionary.count(length) > 0) cells.add(new Cell(bot, guesser, mode, length));
+                }
+            }
+        }
+        output.write(HEADER);
+        output.write(System.lineSeparator());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CompletionService<Batch> completion = new ExecutorCompletionService<>(executor);
+        Tally total = new Tally();
+        try {
+            int cell = 0;
+            int played = 0;
+            int pending = 0;
+            while (pending > 0 || cell < cells.size()) {
+                while (cell < cells.size() && pending < threads * BATCHES_PER_THREAD) {
+                    Cell target = cells.get(cell);
+                    long seed = (long) cell << 32 | played;
+                    int size = Math.min(BATCH_SIZE, games - played);
+                    completion.submit(() -> new Batch(target, play(target, size, new Random(seed))));
+                    pending++;
+                    played += size;
+                    if (played == games) {
+                        cell++;
+                        played = 0;
+                    }
+                }
+                Batch batch = completion.take().get();
+                pending--;
+                batch.cell.tally.add(batch.tally);
+                total.add(batch.tally);
+                if (batch.cell.tally.games == games) {
+                    output.write(row(batch.cell));
+                    output.write(System.lineSeparator());
+                    output.flush();
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return total;
+    }
+
+    /**
+     * 'Helper' for run that plays a batch of games of one bot, mode and length.
+     *
+     * @param cell bot, mode and length to play
+     * @param games to play
+     * @param random source of randomness for the bot
+     * @return totals of the batch
+     */
+    private Tally play(Cell cell, int games, Random random) {
+        Tally tally = new Tally();
+        long start = System.nanoTime();
+        for (int game = 0; game < games; game++) {
+            HangmanManager hangman = cell.mode.equals("dubious")
+                    ? new DubiousHangmanManager(this.dictionary, cell.length, this.guesses, null, this.book)
+                    : new HangmanManager(this.dictionary, cell.length, this.guesses, null, this.book);
+            if (cell.strategy != null) hangman.setStrategy(cell.strategy);
+            int guessed = 0;
+            while (hangman.guessesLeft() > 0 && hangman.pattern().contains("-")) {
+                char guess = cell.guesser.guess(hangman, random);
+                long recordStart = System.nanoTime();
+                hangman.record(guess);
+                long recordNanos = System.nanoTime() - recordStart;
+                tally.records++;
+                tally.recordNanos += recordNanos;
+                tally.maxRecordNanos = Math.max(tally.maxRecordNanos, recordNanos);
+                guessed++;
+            }
+            tally.games++;
+            tally.guesses += guessed;
+            tally.misses += this.guesses - hangman.guessesLeft();
+            if (hangman.guessesLeft() > 0) tally.wins++;
+        }
+        tally.nanos = System.nanoTime() - start;
+        return tally;
+    }
+
+    /**
+     * 'Helper' that formats the CSV row of a finished bot, mode and length.
+     *
+     * @param cell whose games are done
+     * @return CSV row without line separator
+     */
+    private String row(Cell cell) {
+        Tally tally = cell.tally;
+        return String.format(Locale.ROOT, "%s,%s,%d,%d,%d,%d,%.4f,%.3f,%.3f,%.1f,%.1f,%d", cell.bot, cell.mode,
+                cell.length, this.guesses, tally.games, tally.wins, (double) tally.wins / tally.games,
+                (double) tally.guesses / tally.games, (double) tally.misses / tally.games,
+                tally.games / (tally.nanos / 1e9), tally.records == 0 ? 0.0 : (double) tally.recordNanos / tally.records,
+                tally.maxRecordNanos);
+    }
+
+    /**
+     * Running totals over some games.
+     */
+    public static final class Tally {
+        /**
+         * Games played.
+         */
+        long games;
+        /**
+         * Games the bot won.
+         */
+        long wins;
+        /**
+         * Guesses made.
+         */
+        long guesses;
+        /**
+         * Wrong guesses made.
+         */
+        long misses;
+        /**
+         * Calls to record.
+         */
+        long records;
+        /**
+         * Time spent in record, in nanoseconds.
+         */
+        long recordNanos;
+        /**
+         * Longest call to record, in nanoseconds.
+         */
+        long maxRecordNanos;
+        /**
+         * Thread time spent playing, in nanoseconds.
+         */
+        long nanos;
+
+        /**
+         * Adds the totals of other games.
+         *
+         * @param other totals to add
+         */
+        void add(Tally other) {
+            this.games += other.games;
+            this.wins += other.wins;
+            this.guesses += other.guesses;
+            this.misses += other.misses;
+            this.records += other.records;
+            this.recordNanos += other.recordNanos;
+            this.maxRecordNanos = Math.max(this.maxRecordNanos, other.maxRecordNanos);
+            this.nanos += other.nanos;
+        }
+
+        /**
+         * 'Getter' for games.
+         *
+         * @return games played
+         */
+        public long games() {
+            return this.games;
+        }
+
+        /**
+         * 'Getter' for wins.
+         *
+         * @return games the bot won
+         */
+        public long wins() {
+            return this.wins;
+        }
+
+        /**
+         * 'Getter' for records.
+         *
+         * @return calls to record
+         */
+        public long records() {
+            return this.records;
+        }
+    }
+
+    /**
+     * 'Helper' for run that holds one bot, mode and length and the totals of its finished batches.
+     */
+    private static final class Cell {
+        /**
+         * Name of the bot.
+         */
+        final String bot;
+        /**
+         * Bot that picks the letters.
+         */
+        final Guesser guesser;
+        /**
+         * Mode of the games, greedy, dubious or a strategy name.
+         */
+        final String mode;
+        /**
+         * Strategy of the games, null to keep the strategy of their class.
+         */
+        final FamilyStrategy strategy;
+        /**
+         * Length of the words.
+         */
+        final int length;
+        /**
+         * Totals of the finished batches.
+         */
+        final Tally tally = new Tally();
+
+        /**
+         * Creates new Cell.
+         *
+         * @param bot name
+         * @param guesser that picks the letters
+         * @param mode of the games
+         * @param length of the words
+         */
+        Cell(String bot, Guesser guesser, String mode, int length) {
+            this.bot = bot;
+            this.guesser = guesser;
+            this.mode = mode;
+            this.strategy = mode.equals("greedy") || mode.equals("dubious") ? null : FamilyStrategy.named(mode);
+            this.length = length;
+        }
+    }
+
+    /**
+     * 'Helper' for run that pairs the totals of a finished batch with its cell.
+     */
+    private static final class Batch {
+        /**
+         * Bot, mode and length the batch was played with.
+         */
+        final Cell cell;
+        /**
+         * Totals of the batch.
+         */
+        final Tally tally;
+
+        /**
+         * Creates new Batch.
+         *
+         * @param cell the batch was played with
+         * @param tally of the batch
+         */
+        Batch(Cell cell, Tally tally) {
+            this.cell = cell;
+            this.tally = tally;
+        }
+    }
+}
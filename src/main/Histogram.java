@@ -0,0 +1,141 @@
+package main;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * Fixed size, thread safe histogram of non-negative values. Values are counted into log-linear buckets, eight per power
+ * of two, so recording is a few arithmetic operations and an atomic increment, and percentiles are accurate to within
+ * 12.5%.
+ */
+public final class Histogram {
+
+    /**
+     * Bits of a value kept below its leading bit.
+     */
+    private static final int SUB_BITS = 3;
+    /**
+     * Buckets per power of two.
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    /**
+     * Values counted per bucket.
+     */
+    private final AtomicLongArray counts;
+    /**
+     * Number of values.
+     */
+    private final LongAdder count;
+    /**
+     * Sum of the values.
+     */
+    private final LongAdder sum;
+    /**
+     * Largest value.
+     */
+    private final AtomicLong max;
+
+    /**
+     * Creates new empty main.Histogram.
+     */
+    public Histogram() {
+        this.counts = new AtomicLongArray((Long.SIZE - SUB_BITS) * SUB_BUCKETS);
+        this.count = new LongAdder();
+        this.sum = new LongAdder();
+        this.max = new AtomicLong();
+    }
+
+    /**
+     * Counts a value.
+     *
+     * @param value to count, negative values are counted as 0
+     */
+    public void record(long value) {
+        value = Math.max(value, 0);
+        this.counts.incrementAndGet(bucketOf(value));
+        this.count.increment();
+        this.sum.add(value);
+        long largest = this.max.get();
+        while (value > largest && !this.max.compareAndSet(largest, value)) {
+            largest = this.max.get();
+        }
+    }
+
+    /**
+     * 'Getter' for the number of values.
+     *
+     * @return values counted
+     */
+    public long count() {
+        return this.count.sum();
+    }
+
+    /**
+     * 'Getter' for the largest value.
+     *
+     * @return largest value counted, 0 if there are none
+     */
+    public long max() {
+        return this.max.get();
+    }
+
+    /**
+     * 'Getter' for the mean.
+     *
+     * @return mean of the values counted, 0 if there are none
+     */
+    public double mean() {
+        long count = count();
+        return count == 0 ? 0 : (double) this.sum.sum() / count;
+    }
+
+    /**
+     * Finds a percentile.
+     *
+     * @param fraction of the values at or below the percentile, between 0 and 1
+     * @return upper end of the bucket holding the percentile, never above the largest value, 0 if there are none
+     * @throws IllegalArgumentException if fraction is not between 0 and 1
+     */
+    public long percentile(double fraction) {
+        if (!(fraction >= 0 && fraction <= 1)) {
+            throw new IllegalArgumentException();
+        }
+        long target = Math.max(1, (long) Math.ceil(fraction * count()));
+        long seen = 0;
+        for (int bucket = 0; bucket < this.counts.length(); bucket++) {
+            seen += this.counts.get(bucket);
+            if (seen >= target) return Math.min(upperBound(bucket), max());
+        }
+        return max();
+    }
+
+    /**
+     * 'Helper' that finds the bucket of a value.
+     *
+     * @param value non-negative
+     * @return bucket index
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int mantissa = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + mantissa;
+    }
+
+    /**
+     * 'Helper' that finds the largest value of a bucket.
+     *
+     * @param bucket index
+     * @return largest value counted into the bucket
+     */
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
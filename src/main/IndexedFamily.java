@@ -0,0 +1,319 @@
+package main;
+
+import java.util.*;
+
+/**
+ * Current family of one game as a bitset of word ids over a shared main.LetterIndex. Partitions a guess with bitset
+ * intersections and popcounts instead of reading every character of every word, and narrows itself in place by
+ * dropping ids and 64-bit blocks that left the family, so the work per guess shrinks with the family.
+ *
+ * It is also the read-only set of the family's words, iterated in ascending order straight from the shared bucket,
+ * so a game never holds a copy of its words and costs a few bits per word of the bucket whatever its family.
+ */
+final class IndexedFamily extends AbstractSet<String> {
+
+    /**
+     * Shared index of the length bucket.
+     */
+    private final LetterIndex index;
+    /**
+     * Ids of the words in the family.
+     */
+    private final long[] alive;
+    /**
+     * Blocks of alive that still hold a word, ascending.
+     */
+    private final int[] active;
+    /**
+     * Number of entries of active in use.
+     */
+    private int activeCount;
+    /**
+     * Number of words in the family.
+     */
+    private int size;
+    /**
+     * Bitsets of the last guess for every position, null where no word of the bucket has it.
+     */
+    private final long[][] guessBits;
+    /**
+     * Words per family of the last partition.
+     */
+    private final FamilyCounts counts;
+    /**
+     * Keys of the words of one block, reused while partitioning.
+     */
+    private final long[] blockKeys;
+    /**
+     * Words of the family holding each letter, null until first asked for.
+     */
+    private LetterCounts letters;
+
+    /**
+     * Creates new main.IndexedFamily holding the whole bucket.
+     *
+     * @param index of the length bucket
+     */
+    IndexedFamily(LetterIndex index) {
+        this.index = index;
+        this.alive = new long[index.blocks()];
+        this.active = new int[index.blocks()];
+        this.guessBits = new long[index.length()][];
+        this.counts = new FamilyCounts();
+        this.blockKeys = new long[Long.SIZE];
+        int words = index.bucket().size();
+        for (int block = 0; block < this.alive.length; block++) {
+            int inBlock = Math.min(Long.SIZE, words - block * Long.SIZE);
+            this.alive[block] = inBlock == Long.SIZE ? -1L : (1L << inBlock) - 1;
+            this.active[block] = block;
+        }
+        this.activeCount = this.alive.length;
+        this.size = words;
+    }
+
+    /**
+     * 'Getter' for the family size.
+     *
+     * @return number of words in the family
+     */
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean contains(Object word) {
+        int id = this.index.bucket().indexOf(word);
+        return id >= 0 && (this.alive[id / Long.SIZE] & (1L << (id % Long.SIZE))) != 0;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<>() {
+            private int next;
+            private long remaining = activeCount > 0 ? alive[active[0]] : 0;
+
+            @Override
+            public boolean hasNext() {
+                return this.remaining != 0;
+            }
+
+            @Override
+            public String next() {
+                if (this.remaining == 0) throw new NoSuchElementException();
+                int id = active[this.next] * Long.SIZE + Long.numberOfTrailingZeros(this.remaining);
+                this.remaining &= this.remaining - 1;
+                if (this.remaining == 0 && ++this.next < activeCount) this.remaining = alive[active[this.next]];
+                return index.bucket().get(id);
+            }
+        };
+    }
+
+    /**
+     * Splits the family into families for a guess. Replaces the result of any previous partition.
+     *
+     * @param guess that user provided
+     */
+    void partition(char guess) {
+        int length = this.index.length();
+        load(guess);
+        this.counts.clear();
+        int missing = 0;
+        for (int i = 0; i < this.activeCount; i++) {
+            int block = this.active[i];
+            long words = this.alive[block];
+            long union = 0;
+            for (int position = 0; position < length; position++) {
+                long[] bits = this.guessBits[position];
+                if (bits == null || (bits[block] & words) == 0) continue;
+                long hits = bits[block] & words;
+                union |= hits;
+                long mask = 1L << (length - 1 - position);
+                while (hits != 0) {
+                    this.blockKeys[Long.numberOfTrailingZeros(hits)] |= mask;
+                    hits &= hits - 1;
+                }
+            }
+            missing += Long.bitCount(words & ~union);
+            while (union != 0) {
+                int bit = Long.numberOfTrailingZeros(union);
+                this.counts.add(this.blockKeys[bit], 1);
+                this.blockKeys[bit] = 0;
+                union &= union - 1;
+            }
+        }
+        if (missing > 0) this.counts.add(0, missing);
+    }
+
+    /**
+     * Finds the largest family of the last partition, breaking ties as described in FamilyCounts.largest.
+     *
+     * @param guess that the last partition was made for
+     * @return key of the largest family
+     */
+    long largest(char guess) {
+        return this.counts.largest(guess);
+    }
+
+    /**
+     * 'Getter' for the families of the last partition.
+     *
+     * @return words per family of the last partition
+     */
+    FamilyCounts counts() {
+        return this.counts;
+    }
+
+    /**
+     * Number of families in the last partition.
+     *
+     * @return family count
+     */
+    int families() {
+        return this.counts.families();
+    }
+
+    /**
+     * 'Getter' for the letter counts of the family. The first call counts them with one popcount per letter and
+     * block; narrow then takes out the words that leave the family, so later calls cost nothing.
+     *
+     * @return words of the family holding each letter
+     */
+    LetterCounts letters() {
+        if (this.letters == null) {
+            Alphabet alphabet = this.index.alphabet();
+            LetterCounts letters = new LetterCounts(alphabet);
+            for (int letter = 0; letter < alphabet.size(); letter++) {
+                long[] anywhere = this.index.anywhere(letter);
+                if (anywhere == null) continue;
+                int count = 0;
+                for (int i = 0; i < this.activeCount; i++) {
+                    count += Long.bitCount(this.alive[this.active[i]] & anywhere[this.active[i]]);
+                }
+                letters.add(letter, count);
+            }
+            this.letters = letters;
+        }
+        return this.letters;
+    }
+
+    /**
+     * Narrows the family down to one family of the last partition.
+     *
+     * @param key of the family to keep
+     */
+    void narrow(long key) {
+        int length = this.index.length();
+        int kept = 0;
+        int size = 0;
+        for (int i = 0; i < this.activeCount; i++) {
+            int block = this.active[i];
+            long after = this.alive[block];
+            for (int position = 0; position < length; position++) {
+                long[] bits = this.guessBits[position];
+                long hits = bits == null ? 0 : bits[block];
+                after &= FamilyPartitioner.revealed(key, length, position) ? hits : ~hits;
+            }
+            if (this.letters != null && after != this.alive[block]) drop(block, this.alive[block] & ~after);
+            this.alive[block] = after;
+            if (after != 0) {
+                this.active[kept++] = block;
+                size += Long.bitCount(after);
+            }
+        }
+        this.activeCount = kept;
+        this.size = size;
+    }
+
+    /**
+     * 'Helper' for narrow that takes the words leaving the family out of the letter counts.
+     *
+     * @param block of the words
+     * @param dropped ids of the block leaving the family
+     */
+    private void drop(int block, long dropped) {
+        for (int letter = 0; letter < this.index.alphabet().size(); letter++) {
+            long[] anywhere = this.index.anywhere(letter);
+            if (anywhere != null) this.letters.add(letter, -Long.bitCount(dropped & anywhere[block]));
+        }
+    }
+
+    /**
+     * Narrows the family down to the words that show a guess at exactly the positions of a key, without
+     * partitioning first. Replaces the result of any previous partition.
+     *
+     * @param guess that user provided
+     * @param key of the family to keep, as built by main.FamilyPartitioner
+     */
+    void narrow(char guess, long key) {
+        load(guess);
+        this.counts.clear();
+        narrow(key);
+    }
+
+    /**
+     * 'Helper' that looks up the positions of a guess in the index.
+     *
+     * @param guess that user provided
+     */
+    private void load(char guess) {
+        for (int position = 0; position < this.index.length(); position++) {
+            this.guessBits[position] = this.index.bits(guess, position);
+        }
+    }
+
+    /**
+     * Resets the family to the given words, for when the family was chosen without partitioning. Since both the
+     * words and the bucket are sorted, each id is searched for from the previous one outwards, which costs far less
+     * than a binary search over the whole bucket per word when the family is large.
+     *
+     * @param words of the new family in ascending order, all from the length bucket
+     */
+    void retain(Collection<String> words) {
+        Arrays.fill(this.alive, 0);
+        SortedArraySet bucket = this.index.bucket();
+        int from = 0;
+        for (String word : words) {
+            int id = seek(bucket, word, from);
+            this.alive[id / Long.SIZE] |= 1L << (id % Long.SIZE);
+            from = id + 1;
+        }
+        int kept = 0;
+        for (int block = 0; block < this.alive.length; block++) {
+            if (this.alive[block] != 0) this.active[kept++] = block;
+        }
+        this.activeCount = kept;
+        this.size = words.size();
+        this.letters = null;
+    }
+
+    /**
+     * 'Helper' for retain that finds the id of a word at or after an id, galloping ahead in growing steps before
+     * searching the last step.
+     *
+     * @param bucket sorted words of the length
+     * @param word of the bucket
+     * @param from id the word is known to be at or after
+     * @return id of the word
+     */
+    private static int seek(SortedArraySet bucket, String word, int from) {
+        int low = from;
+        int high = from;
+        int step = 1;
+        while (high < bucket.size() && bucket.get(high).compareTo(word) < 0) {
+            low = high + 1;
+            high += step;
+            step <<= 1;
+        }
+        high = Math.min(high, bucket.size() - 1);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (bucket.get(middle).compareTo(word) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
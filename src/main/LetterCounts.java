@@ -0,0 +1,73 @@
+package main;
+
+/**
+ * Number of words of a family that hold each letter of an alphabet at least once, kept up to date as the family
+ * narrows by taking out the words that leave it, so reading a count never looks at the words.
+ */
+final class LetterCounts {
+
+    /**
+     * Letters counted.
+     */
+    private final Alphabet alphabet;
+    /**
+     * Words holding each letter, by alphabet index.
+     */
+    private final int[] counts;
+    /**
+     * Stamp of the last word each letter was counted for, so that a letter is counted once per word.
+     */
+    private final int[] seen;
+    /**
+     * Stamp of the word being counted.
+     */
+    private int stamp;
+
+    /**
+     * Creates new main.LetterCounts with every count at 0.
+     *
+     * @param alphabet of the letters to count
+     */
+    LetterCounts(Alphabet alphabet) {
+        this.alphabet = alphabet;
+        this.counts = new int[alphabet.size()];
+        this.seen = new int[alphabet.size()];
+    }
+
+    /**
+     * Counts a word in or out.
+     *
+     * @param word of the alphabet
+     * @param delta 1 for a word joining the family, -1 for one leaving it
+     */
+    void add(CharSequence word, int delta) {
+        this.stamp++;
+        for (int i = 0; i < word.length(); i++) {
+            int letter = this.alphabet.indexOf(word.charAt(i));
+            if (this.seen[letter] != this.stamp) {
+                this.seen[letter] = this.stamp;
+                this.counts[letter] += delta;
+            }
+        }
+    }
+
+    /**
+     * Changes the count of one letter.
+     *
+     * @param letter index in the alphabet
+     * @param delta to add to the count
+     */
+    void add(int letter, int delta) {
+        this.counts[letter] += delta;
+    }
+
+    /**
+     * 'Getter' for the count of a letter.
+     *
+     * @param letter index in the alphabet
+     * @return number of words holding the letter
+     */
+    int get(int letter) {
+        return this.counts[letter];
+    }
+}
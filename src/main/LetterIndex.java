@@ -0,0 +1,132 @@
+package main;
+
+/**
+ * Immutable per-position letter index over one length bucket of a main.DictionaryIndex. Words are addressed by their
+ * id, their position in the sorted bucket, and for every (position, letter) pair the index holds a bitset of the ids
+ * of the words with that letter at that position. Built once per length and shared by every game of that length.
+ */
+final class LetterIndex {
+
+    /**
+     * Sorted words of the bucket, addressed by id.
+     */
+    private final SortedArraySet bucket;
+    /**
+     * Length of the words.
+     */
+    private final int length;
+    /**
+     * Number of 64-bit blocks in each bitset.
+     */
+    private final int blocks;
+    /**
+     * Letters of the dictionary, which index the bitsets.
+     */
+    private final Alphabet alphabet;
+    /**
+     * Bitset of word ids for every letter and position, indexed by alphabet index * length + position, null if
+     * empty.
+     */
+    private final long[][] bits;
+    /**
+     * Bitset of the ids of the words holding each letter anywhere, indexed by alphabet index, null if empty. Built
+     * the first time letter counts are asked for, so games that never ask do not pay for it.
+     */
+    private volatile long[][] anywhere;
+
+    /**
+     * Creates new main.LetterIndex.
+     *
+     * @param bucket sorted words of one length
+     * @param length of the words
+     * @param alphabet of the dictionary, holding every letter of the bucket
+     */
+    LetterIndex(SortedArraySet bucket, int length, Alphabet alphabet) {
+        this.bucket = bucket;
+        this.length = length;
+        this.blocks = (bucket.size() + Long.SIZE - 1) / Long.SIZE;
+        this.alphabet = alphabet;
+        this.bits = new long[alphabet.size() * length][];
+        int id = 0;
+        for (String word : bucket) {
+            for (int i = 0; i < length; i++) {
+                int slot = alphabet.indexOf(word.charAt(i)) * length + i;
+                if (this.bits[slot] == null) this.bits[slot] = new long[this.blocks];
+                this.bits[slot][id / Long.SIZE] |= 1L << (id % Long.SIZE);
+            }
+            id++;
+        }
+    }
+
+    /**
+     * 'Getter' for the bitset of a letter at a position.
+     *
+     * @param letter to look for
+     * @param position within the word
+     * @return bitset of the ids of words with the letter at the position, null if there are none
+     */
+    long[] bits(char letter, int position) {
+        int letterIndex = this.alphabet.indexOf(letter);
+        return letterIndex < 0 ? null : this.bits[letterIndex * this.length + position];
+    }
+
+    /**
+     * 'Getter' for the bitset of a letter at any position.
+     *
+     * @param letter index in the alphabet
+     * @return bitset of the ids of words holding the letter, null if there are none
+     */
+    long[] anywhere(int letter) {
+        long[][] anywhere = this.anywhere;
+        if (anywhere == null) {
+            // Building twice on a race is harmless, both results are equal and never change.
+            anywhere = new long[this.alphabet.size()][];
+            for (int slot = 0; slot < this.bits.length; slot++) {
+                if (this.bits[slot] == null) continue;
+                long[] union = anywhere[slot / this.length];
+                if (union == null) anywhere[slot / this.length] = union = new long[this.blocks];
+                for (int block = 0; block < this.blocks; block++) {
+                    union[block] |= this.bits[slot][block];
+                }
+            }
+            this.anywhere = anywhere;
+        }
+        return anywhere[letter];
+    }
+
+    /**
+     * 'Getter' for the alphabet.
+     *
+     * @return letters of the dictionary, which index the bitsets
+     */
+    Alphabet alphabet() {
+        return this.alphabet;
+    }
+
+    /**
+     * 'Getter' for the words of the bucket.
+     *
+     * @return sorted words addressed by id
+     */
+    SortedArraySet bucket() {
+        return this.bucket;
+    }
+
+    /**
+     * 'Getter' for the word length.
+     *
+     * @return length of the words
+     */
+    int length() {
+        return this.length;
+    }
+
+    /**
+     * 'Getter' for the bitset size.
+     *
+     * @return number of 64-bit blocks in each bitset
+     */
+    int blocks() {
+        return this.blocks;
+    }
+}
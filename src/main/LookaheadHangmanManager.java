@@ -0,0 +1,406 @@
+package main;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Subclass of main.DubiousHangmanManager that looks several guesses ahead instead of always keeping the largest
+ * family. For every family of a guess it plays the game forward minimax-style, the player trying every letter and
+ * the game answering with every family, and keeps the family that forces the most misses on a player who guesses
+ * perfectly. Families left at the end of the search are credited with the misses their size is still estimated to
+ * force, and ties go to the family the greedy game would have kept.
+ *
+ * The search deepens one guess at a time until it reaches its depth or runs out of its time budget, in which case the
+ * deepest search that finished decides, or the largest family if none did. Since a family only depends on the pattern
+ * and the guessed letters, the values found for it are remembered across guesses.
+ */
+public class LookaheadHangmanManager extends DubiousHangmanManager {
+
+    /**
+     * Guesses looked ahead when none are given.
+     */
+    public static final int DEFAULT_DEPTH = 3;
+    /**
+     * Time each guess may spend searching when no budget is given.
+     */
+    public static final Duration DEFAULT_BUDGET = Duration.ofMillis(50);
+    /**
+     * Families remembered before the memo is cleared.
+     */
+    private static final int MAX_MEMO_ENTRIES = 1 << 18;
+    /**
+     * Value of one miss. Values are fixed point numbers of misses, so estimates can be fractions of a miss.
+     */
+    private static final long MISS = 1L << 32;
+    /**
+     * Thrown, without a stack trace, to unwind a search that ran out of time.
+     */
+    private static final OutOfTime OUT_OF_TIME = new OutOfTime();
+
+    /**
+     * Guesses looked ahead, counting the current one.
+     */
+    private final int depth;
+    /**
+     * Time each guess may spend searching, in nanoseconds.
+     */
+    private final long budget;
+    /**
+     * Values of families searched so far, by family, remaining depth and lives.
+     */
+    private final Map<String, Bound> memo;
+    /**
+     * Time the current search has to finish by, as given by System.nanoTime.
+     */
+    private long deadline;
+    /**
+     * Depth of the deepest search that finished for the last guess.
+     */
+    private int searchedDepth;
+
+    /**
+     * Creates new main.LookaheadHangmanManager and calls parent constructor.
+     *
+     * @param dictionary of words to guess from
+     * @param length of word to guess
+     * @param guesses that player is granted
+     * @param depth of guesses to look ahead, counting the current one
+     * @param budget of time each guess may spend searching
+     *
+     * @throws IllegalArgumentException if the game settings are invalid, if depth is less than 1 or if the budget
+     * is negative
+     */
+    public LookaheadHangmanManager (Collection<String> dictionary, int length, int guesses, int depth,
+                                    Duration budget) {
+        super(dictionary, length, guesses);
+        this.depth = depth;
+        this.budget = checkedBudget(depth, budget);
+        this.memo = new HashMap<>();
+    }
+
+    /**
+     * Creates new main.LookaheadHangmanManager from a shared dictionary index and calls parent constructor.
+     *
+     * @param dictionary index of words to guess from
+     * @param length of word to guess
+     * @param guesses that player is granted
+     * @param depth of guesses to look ahead, counting the current one
+     * @param budget of time each guess may spend searching
+     *
+     * @throws IllegalArgumentException if the game settings are invalid, if depth is less than 1 or if the budget
+     * is negative
+     */
+    public LookaheadHangmanManager (DictionaryIndex dictionary, int length, int guesses, int depth,
+                                    Duration budget) {
+        super(dictionary, length, guesses);
+        this.depth = depth;
+        this.budget = checkedBudget(depth, budget);
+        this.memo = new HashMap<>();
+    }
+
+    /**
+     * Creates new main.LookaheadHangmanManager whose current words are already narrowed down to a family and calls
+     * parent constructor.
+     *
+     * @param dictionary index of words to guess from
+     * @param length of word to guess
+     * @param guesses that player is granted
+     * @param depth of guesses to look ahead, counting the current one
+     * @param budget of time each guess may spend searching
+     * @param family current words, all from the dictionary bucket of that length
+     */
+    LookaheadHangmanManager (DictionaryIndex dictionary, int length, int guesses, int depth, Duration budget,
+                             SortedSet<String> family) {
+        super(dictionary, length, guesses, null, null, family);
+        this.depth = depth;
+        this.budget = checkedBudget(depth, budget);
+        this.memo = new HashMap<>();
+    }
+
+    /**
+     * 'Getter' for the depth.
+     *
+     * @return guesses looked ahead, counting the current one
+     */
+    int depth() {
+        return this.depth;
+    }
+
+    /**
+     * 'Getter' for the budget.
+     *
+     * @return time each guess may spend searching
+     */
+    Duration budget() {
+        return Duration.ofNanos(this.budget);
+    }
+
+    /**
+     * 'Getter' for the depth of the last search.
+     *
+     * @return guesses the last guess looked ahead before choosing its family, 0 if it kept the largest family
+     */
+    public int searchedDepth() {
+        return this.searchedDepth;
+    }
+
+    /**
+     * Picks the family that forces the most misses within the depth, deepening while the time budget lasts. On the
+     * last guess the forced miss of main.DubiousHangmanManager wins without a search.
+     *
+     * @param guess that user provided
+     * @return key of the family
+     */
+    @Override
+    long chooseFamily(char guess) {
+        long largest = super.chooseFamily(guess);
+        this.searchedDepth = 0;
+        if (guessesLeft() == 1 && largest == 0) {
+            return largest;
+        }
+        if (this.memo.size() > MAX_MEMO_ENTRIES) {
+            this.memo.clear();
+        }
+        this.deadline = System.nanoTime() + this.budget;
+        List<Family> families = split(this.words, rawPattern(), guess);
+        StringBuilder letters = new StringBuilder();
+        for (char letter : this.letters) {
+            letters.append(letter);
+        }
+        long chosen = largest;
+        try {
+            for (int remaining = 0; remaining < this.depth && System.nanoTime() - this.deadline < 0; remaining++) {
+                chosen = bestFamily(families, letters.toString(), remaining);
+                this.searchedDepth = remaining + 1;
+            }
+        } catch (OutOfTime e) {
+            // Keep the family of the deepest search that finished.
+        }
+        return chosen;
+    }
+
+    /**
+     * 'Helper' for chooseFamily that searches every family of the current guess.
+     *
+     * @param families of the current guess, in the order the greedy game prefers them
+     * @param letters guessed so far, sorted
+     * @param remaining guesses to look ahead after the current one
+     * @return key of the family with the highest value
+     */
+    private long bestFamily(List<Family> families, String letters, int remaining) {
+        long chosen = families.get(0).key;
+        long best = -1;
+        for (Family family : families) {
+            int miss = family.key == 0 ? 1 : 0;
+            long value = miss * MISS
+                    + playerValue(family, letters, remaining, guessesLeft() - miss, best - miss * MISS);
+            if (value > best) {
+                best = value;
+                chosen = family.key;
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * 'Helper' that values a family from the player's side: the lowest value any unguessed letter leads to.
+     * Values are the misses forced within the search plus the estimate of the families it ends on, in units of MISS.
+     *
+     * @param family to value
+     * @param letters guessed so far, sorted
+     * @param remaining guesses to look ahead
+     * @param lives misses the player can still afford
+     * @param alpha value the game is already guaranteed elsewhere
+     * @return value of the family, or a value no higher than alpha if it is no better than alpha
+     */
+    private long playerValue(Family family, String letters, int remaining, int lives, long alpha) {
+        if (lives == 0) {
+            return 0;
+        } else if (remaining == 0 || family.words.size() == 1) {
+            return estimate(family.words.size(), lives);
+        }
+        String key = family.pattern + '\0' + letters + '\0' + (char) remaining + (char) lives;
+        Bound bound = this.memo.get(key);
+        if (bound != null && (bound.exact || bound.value <= alpha)) {
+            return bound.value;
+        }
+        long most = lives * MISS;
+        long best = Long.MAX_VALUE;
+        for (char letter : candidates(family.words, letters)) {
+            if (System.nanoTime() - this.deadline > 0) {
+                throw OUT_OF_TIME;
+            }
+            String next = insert(letters, letter);
+            long value = -1;
+            for (Family child : split(family.words, family.pattern, letter)) {
+                int miss = child.key == 0 ? 1 : 0;
+                value = Math.max(value, miss * MISS
+                        + playerValue(child, next, remaining - 1, lives - miss, value - miss * MISS));
+                if (value >= Math.min(most, best)) break;
+            }
+            best = Math.min(best, value);
+            if (best <= alpha) break;
+        }
+        this.memo.put(key, new Bound(best, best > alpha));
+        return best;
+    }
+
+    /**
+     * 'Helper' that estimates the misses a family can still force once the search stops looking ahead. A player
+     * needs about log2(n) guesses to single out one of n words, and the family is taken to be worth as many misses,
+     * short of the misses that would end the game.
+     *
+     * @param size of the family
+     * @param lives misses the player can still afford
+     * @return estimated value of the family
+     */
+    private static long estimate(int size, int lives) {
+        long misses = (long) (MISS * (Math.log(size) / Math.log(2)));
+        return Math.min(misses, lives * MISS - 1);
+    }
+
+    /**
+     * 'Helper' that splits words into families for a guess, largest first and ties in the order the greedy game
+     * prefers them.
+     *
+     * @param words sharing a pattern
+     * @param pattern of the words
+     * @param guess to split by
+     * @return families of the guess
+     */
+    private static List<Family> split(Collection<String> words, String pattern, char guess) {
+        Map<Long, List<String>> groups = new HashMap<>();
+        for (String word : words) {
+            groups.computeIfAbsent(FamilyPartitioner.keyOf(word, guess), key -> new ArrayList<>()).add(word);
+        }
+        List<Family> families = new ArrayList<>(groups.size());
+        for (Map.Entry<Long, List<String>> group : groups.entrySet()) {
+            long key = group.getKey();
+            families.add(new Family(key, FamilyPartitioner.reveal(pattern, key, guess), group.getValue()));
+        }
+        boolean preferRevealed = guess < '-';
+        families.sort((a, b) -> a.words.size() != b.words.size() ? b.words.size() - a.words.size()
+                : Long.compareUnsigned(a.key, b.key) * (preferRevealed ? -1 : 1));
+        return families;
+    }
+
+    /**
+     * 'Helper' that lists the unguessed letters of some words, those found in the most words first.
+     *
+     * @param words to look through
+     * @param letters guessed so far
+     * @return letters worth guessing
+     */
+    private static List<Character> candidates(List<String> words, String letters) {
+        Map<Character, Integer> counts = new HashMap<>();
+        for (String word : words) {
+            for (int i = 0; i < word.length(); i++) {
+                char letter = word.charAt(i);
+                if (word.indexOf(letter) == i && letters.indexOf(letter) < 0) counts.merge(letter, 1, Integer::sum);
+            }
+        }
+        List<Character> candidates = new ArrayList<>(counts.keySet());
+        candidates.sort((a, b) -> counts.get(a).equals(counts.get(b)) ? a - b : counts.get(b) - counts.get(a));
+        return candidates;
+    }
+
+    /**
+     * 'Helper' that adds a letter to sorted letters.
+     *
+     * @param letters sorted
+     * @param letter to add
+     * @return sorted letters including the new one
+     */
+    private static String insert(String letters, char letter) {
+        int at = 0;
+        while (at < letters.length() && letters.charAt(at) < letter) {
+            at++;
+        }
+        return letters.substring(0, at) + letter + letters.substring(at);
+    }
+
+    /**
+     * 'Helper' for the constructors that validates the search settings.
+     *
+     * @param depth of guesses to look ahead
+     * @param budget of time each guess may spend searching
+     * @return budget in nanoseconds
+     * @throws IllegalArgumentException if depth is less than 1 or if the budget is negative
+     */
+    private static long checkedBudget(int depth, Duration budget) {
+        if (depth < 1 || budget.isNegative()) {
+            throw new IllegalArgumentException();
+        }
+        return budget.toNanos();
+    }
+
+    /**
+     * 'Helper' for record that holds one family of a guess.
+     */
+    private static final class Family {
+        /**
+         * Positions the guess was revealed at, as built by main.FamilyPartitioner.
+         */
+        final long key;
+        /**
+         * Pattern of the family.
+         */
+        final String pattern;
+        /**
+         * Words of the family.
+         */
+        final List<String> words;
+
+        /**
+         * Creates new Family.
+         *
+         * @param key of the family
+         * @param pattern of the family
+         * @param words of the family
+         */
+        Family(long key, String pattern, List<String> words) {
+            this.key = key;
+            this.pattern = pattern;
+            this.words = words;
+        }
+    }
+
+    /**
+     * 'Helper' for the memo that holds the value of a family, or a bound on it if the search was cut short.
+     */
+    private static final class Bound {
+        /**
+         * Value of the family, or a value it is known not to exceed.
+         */
+        final long value;
+        /**
+         * Whether value is the exact value of the family.
+         */
+        final boolean exact;
+
+        /**
+         * Creates new Bound.
+         *
+         * @param value of the family
+         * @param exact whether the value is exact rather than an upper bound
+         */
+        Bound(long value, boolean exact) {
+            this.value = value;
+            this.exact = exact;
+        }
+    }
+
+    /**
+     * 'Helper' that unwinds a search that ran out of time.
+     */
+    private static final class OutOfTime extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Creates new OutOfTime without a stack trace.
+         */
+        OutOfTime() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package main;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * main.GameMetrics that keeps main.Histograms of everything it is told, safe to share between games on different
+ * threads.
+ */
+public final class MetricsRegistry implements GameMetrics {
+
+    /**
+     * Time of each phase, in nanoseconds.
+     */
+    private final Map<Phase, Histogram> phases;
+    /**
+     * Words partitioned per guess.
+     */
+    private final Histogram wordsScanned;
+    /**
+     * Families per guess.
+     */
+    private final Histogram families;
+    /**
+     * Words of the family kept per guess.
+     */
+    private final Histogram familySize;
+    /**
+     * Times main.DubiousHangmanManager forced a miss on the last guess.
+     */
+    private final LongAdder lastGuessesForced;
+
+    /**
+     * Creates new empty main.MetricsRegistry.
+     */
+    public MetricsRegistry() {
+        this.phases = new EnumMap<>(Phase.class);
+        for (Phase phase : Phase.values()) {
+            this.phases.put(phase, new Histogram());
+        }
+        this.wordsScanned = new Histogram();
+        this.families = new Histogram();
+        this.familySize = new Histogram();
+        this.lastGuessesForced = new LongAdder();
+    }
+
+    @Override
+    public void phase(Phase phase, long nanos) {
+        this.phases.get(phase).record(nanos);
+    }
+
+    @Override
+    public void partitioned(int wordsScanned, int families) {
+        this.wordsScanned.record(wordsScanned);
+        this.families.record(families);
+    }
+
+    @Override
+    public void narrowed(int familySize) {
+        this.familySize.record(familySize);
+    }
+
+    @Override
+    public void lastGuessForced() {
+        this.lastGuessesForced.increment();
+    }
+
+    /**
+     * 'Getter' for the time of a phase.
+     *
+     * @param phase of record
+     * @return histogram of the time the phase took, in nanoseconds
+     */
+    public Histogram phase(Phase phase) {
+        return this.phases.get(phase);
+    }
+
+    /**
+     * 'Getter' for the words partitioned.
+     *
+     * @return histogram of the words partitioned per guess
+     */
+    public Histogram wordsScanned() {
+        return this.wordsScanned;
+    }
+
+    /**
+     * 'Getter' for the families.
+     *
+     * @return histogram of the families per guess
+     */
+    public Histogram families() {
+        return this.families;
+    }
+
+    /**
+     * 'Getter' for the family sizes.
+     *
+     * @return histogram of the words of the family kept per guess
+     */
+    public Histogram familySize() {
+        return this.familySize;
+    }
+
+    /**
+     * 'Getter' for the forced misses.
+     *
+     * @return times main.DubiousHangmanManager forced a miss on the last guess
+     */
+    public long lastGuessesForced() {
+        return this.lastGuessesForced.sum();
+    }
+}
@@ -0,0 +1,463 @@
+package main;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Precomputed opening book of the first guesses of every game, stored in a memory-mapped file.
+ *
+ * The first guesses are the most expensive ones since the family still holds every word of the length. The generator
+ * walks every sequence of distinct letters up to a configurable depth for each word length and records, for every
+ * state it reaches, the pattern left by the family the adversary keeps. A state is identified the same way as
+ * in main.PartitionCache, so letter orders that lead to the same state share one entry. Games look their early
+ * guesses up in the book and go back to partitioning once they leave it.
+ *
+ * The file starts with a magic number, the format version and the depth, followed by the word count and a
+ * fingerprint of every length bucket of the dictionary the book was generated from. An index of (key hash, offset)
+ * pairs sorted by hash follows, then the entries: the key and the new pattern. Games narrow their own words down to
+ * the pattern, so the family itself is not stored.
+ */
+public final class OpeningBook {
+
+    /**
+     * Marks the start of an opening book file, "HBOK" in ASCII.
+     */
+    static final int MAGIC = 0x48424F4B;
+    /**
+     * Version of the format written by this class.
+     */
+    static final int VERSION = 2;
+    /**
+     * Depth used by the generator when none is given.
+     */
+    public static final int DEFAULT_DEPTH = 2;
+    /**
+     * Bucket fingerprint not checked yet.
+     */
+    private static final int UNCHECKED = 0;
+    /**
+     * Bucket fingerprint matches the dictionary.
+     */
+    private static final int MATCHES = 1;
+    /**
+     * Bucket fingerprint does not match the dictionary.
+     */
+    private static final int STALE = 2;
+
+    /**
+     * Dictionary the book is used with.
+     */
+    private final DictionaryIndex dictionary;
+    /**
+     * Mapped file.
+     */
+    private final ByteBuffer data;
+    /**
+     * Number of guesses covered by the book.
+     */
+    private final int depth;
+    /**
+     * Fingerprint of every length bucket the book was generated from.
+     */
+    private final int[] fingerprints;
+    /**
+     * Whether each length bucket of the dictionary matches its fingerprint.
+     */
+    private final AtomicIntegerArray checked;
+    /**
+     * Number of entries.
+     */
+    private final int entries;
+
+    /**
+     * Creates new main.OpeningBook over a mapped file.
+     *
+     * @param dictionary the book is used with
+     * @param data mapped entry index and entries, starting at the entry index
+     * @param depth number of guesses covered
+     * @param fingerprints of every length bucket
+     * @param entries number of entries
+     */
+    private OpeningBook(DictionaryIndex dictionary, ByteBuffer data, int depth, int[] fingerprints, int entries) {
+        this.dictionary = dictionary;
+        this.data = data;
+        this.depth = depth;
+        this.fingerprints = fingerprints;
+        this.checked = new AtomicIntegerArray(fingerprints.length);
+        this.entries = entries;
+    }
+
+    /**
+     * Generates an opening book.
+     *
+     * @param args path of the dictionary, path of the book to write and optionally the depth
+     * @throws IOException if either file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java main.OpeningBook <dictionary> <output> [depth]");
+            return;
+        }
+        int depth = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_DEPTH;
+        DictionaryIndex index = DictionaryFile.load(Paths.get(args[0]));
+        int entries = generate(index, depth, Paths.get(args[1]));
+        System.out.println("Wrote " + entries + " positions of depth " + depth + " to " + args[1]);
+    }
+
+    /**
+     * Walks every sequence of distinct letters up to a depth for every word length and writes the resulting book.
+     *
+     * @param dictionary to generate the book for
+     * @param depth number of guesses to cover
+     * @param path of the book to write
+     * @return number of entries written
+     * @throws IOException if the book cannot be written
+     * @throws IllegalArgumentException if depth is less than 1
+     */
+    public static int generate(DictionaryIndex dictionary, int depth, Path path) throws IOException {
+        if (depth < 1) {
+            throw new IllegalArgumentException();
+        }
+        Map<String, byte[]> book = new HashMap<>();
+        int lengths = Math.min(dictionary.maxLength(), FamilyPartitioner.MAX_LENGTH) + 1;
+        int[] fingerprints = new int[lengths];
+        for (int length = 1; length < lengths; length++) {
+            SortedSet<String> bucket = dictionary.words(length);
+            fingerprints[length] = dictionary.fingerprint(length);
+            if (bucket.size() < 2) continue;
+            int[] family = new int[bucket.size()];
+            for (int i = 0; i < family.length; i++) {
+                family[i] = i;
+            }
+            char[] alphabet = alphabet(bucket);
+            String pattern = "-".repeat(length);
+            walk(new Walk(bucket.toArray(new String[0]), alphabet, depth, new FamilyPartitioner(family.length), book),
+                    family, pattern, new TreeSet<>());
+        }
+        write(dictionary, depth, fingerprints, book, path);
+        return book.size();
+    }
+
+    /**
+     * Maps an opening book into memory.
+     *
+     * @param path of the book
+     * @param dictionary the book is used with, must have the same word counts as the one it was generated from
+     * @return opening book
+     * @throws IOException if the book cannot be read, is not an opening book of a supported version, is truncated
+     * or corrupt, or was generated from a dictionary with different word counts
+     */
+    public static OpeningBook map(Path path, DictionaryIndex dictionary) throws IOException {
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (data.limit() < 4 * Integer.BYTES || data.getInt() != MAGIC) {
+            throw new IOException("Not an opening book: " + path);
+        } else if (data.getInt() != VERSION) {
+            throw new IOException("Unsupported opening book version: " + path);
+        }
+        int depth = data.getInt();
+        int lengths = data.getInt();
+        if (lengths < 0 || data.remaining() < (long) lengths * 2 * Integer.BYTES + Integer.BYTES) {
+            throw new IOException("Corrupt opening book header: " + path);
+        }
+        int[] fingerprints = new int[lengths];
+        for (int length = 0; length < lengths; length++) {
+            if (data.getInt() != dictionary.count(length)) {
+                throw new IOException("Opening book was generated from another dictionary: " + path);
+            }
+            fingerprints[length] = data.getInt();
+        }
+        int entries = data.getInt();
+        if (entries < 0 || data.remaining() < (long) entries * (Long.BYTES + Integer.BYTES)) {
+            throw new IOException("Corrupt opening book index: " + path);
+        }
+        return new OpeningBook(dictionary, data.slice(), depth, fingerprints, entries);
+    }
+
+    /**
+     * 'Getter' for the dictionary.
+     *
+     * @return dictionary the book is used with
+     */
+    public DictionaryIndex dictionary() {
+        return this.dictionary;
+    }
+
+    /**
+     * 'Getter' for the depth.
+     *
+     * @return number of guesses covered by the book
+     */
+    public int depth() {
+        return this.depth;
+    }
+
+    /**
+     * 'Getter' for the number of entries.
+     *
+     * @return number of positions stored in the book
+     */
+    public int size() {
+        return this.entries;
+    }
+
+    /**
+     * Looks up the result of a guess.
+     *
+     * @param key of the state and guess, as built by PartitionCache.keyOf
+     * @param length of the words
+     * @return pattern the guess leaves the game with, without spaces, or null if the guess is out of the book
+     */
+    String get(String key, int length) {
+        if (length >= this.fingerprints.length || !matches(length)) {
+            return null;
+        }
+        long hash = hash(key);
+        int low = 0;
+        int high = this.entries - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long candidate = this.data.getLong(middle * (Long.BYTES + Integer.BYTES));
+            if (candidate < hash) {
+                low = middle + 1;
+            } else if (candidate > hash) {
+                high = middle - 1;
+            } else {
+                while (middle > 0 && this.data.getLong((middle - 1) * (Long.BYTES + Integer.BYTES)) == hash) {
+                    middle--;
+                }
+                for (; middle < this.entries; middle++) {
+                    int slot = middle * (Long.BYTES + Integer.BYTES);
+                    if (this.data.getLong(slot) != hash) break;
+                    String pattern = read(this.data.getInt(slot + Long.BYTES), key, length);
+                    if (pattern != null) return pattern;
+                }
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 'Helper' for get that checks, once per length, whether the dictionary still holds the words the book was
+     * generated from.
+     *
+     * @param length of the words
+     * @return true if the bucket matches its fingerprint
+     */
+    private boolean matches(int length) {
+        int state = this.checked.get(length);
+        if (state == UNCHECKED) {
+            state = this.dictionary.fingerprint(length) == this.fingerprints[length] ? MATCHES : STALE;
+            this.checked.set(length, state);
+        }
+        return state == MATCHES;
+    }
+
+    /**
+     * 'Helper' for get that reads the pattern of an entry if its key matches.
+     *
+     * @param offset of the entry relative to the entry index
+     * @param key of the state and guess
+     * @param length of the words
+     * @return pattern of the entry, or null if the entry has another key
+     */
+    private String read(int offset, String key, int length) {
+        ByteBuffer entry = this.data.duplicate();
+        entry.position(offset);
+        if (entry.getShort() != key.length()) return null;
+        for (int i = 0; i < key.length(); i++) {
+            if (entry.getChar() != key.charAt(i)) return null;
+        }
+        char[] pattern = new char[length];
+        for (int i = 0; i < length; i++) {
+            pattern[i] = entry.getChar();
+        }
+        return new String(pattern);
+    }
+
+    /**
+     * 'Helper' for generate that records every state reachable from a family and descends into it.
+     *
+     * @param walk shared state of the walk
+     * @param family word ids of the current family, ascending
+     * @param pattern of the current family, without spaces
+     * @param letters guessed so far
+     */
+    private static void walk(Walk walk, int[] family, String pattern, TreeSet<Character> letters) {
+        List<String> familyWords = new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                return walk.bucket[family[index]];
+            }
+
+            @Override
+            public int size() {
+                return family.length;
+            }
+        };
+        for (char guess : walk.alphabet) {
+            if (letters.contains(guess)) continue;
+            letters.add(guess);
+            String key = PartitionCache.keyOf(pattern, letters, guess);
+            if (!walk.book.containsKey(key)) {
+                walk.partitioner.partition(familyWords, guess);
+                long chosen = walk.partitioner.largest(guess);
+                int[] next = new int[walk.partitioner.size(chosen)];
+                for (int i = 0, j = 0; i < family.length; i++) {
+                    if (walk.partitioner.inFamily(i, chosen)) next[j++] = family[i];
+                }
+                String nextPattern = FamilyPartitioner.reveal(pattern, chosen, guess);
+                walk.book.put(key, entry(key, nextPattern));
+                if (letters.size() < walk.depth && next.length > 1) {
+                    walk(walk, next, nextPattern, letters);
+                }
+            }
+            letters.remove(guess);
+        }
+    }
+
+    /**
+     * 'Helper' for generate that encodes an entry.
+     *
+     * @param key of the state and guess
+     * @param pattern after the guess, without spaces
+     * @return encoded entry
+     */
+    private static byte[] entry(String key, String pattern) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeShort(key.length());
+            out.writeChars(key);
+            out.writeChars(pattern);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 'Helper' for generate that writes the book file.
+     *
+     * @param dictionary the book was generated from
+     * @param depth number of guesses covered
+     * @param fingerprints of every length bucket
+     * @param book encoded entries by key
+     * @param path of the book to write
+     * @throws IOException if the book cannot be written
+     */
+    private static void write(DictionaryIndex dictionary, int depth, int[] fingerprints, Map<String, byte[]> book,
+                              Path path) throws IOException {
+        List<String> keys = new ArrayList<>(book.keySet());
+        keys.sort(Comparator.comparingLong(OpeningBook::hash).thenComparing(Comparator.naturalOrder()));
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(depth);
+            out.writeInt(fingerprints.length);
+            for (int length = 0; length < fingerprints.length; length++) {
+                out.writeInt(dictionary.count(length));
+                out.writeInt(fingerprints[length]);
+            }
+            out.writeInt(keys.size());
+            long offset = (long) keys.size() * (Long.BYTES + Integer.BYTES);
+            for (String key : keys) {
+                if (offset > Integer.MAX_VALUE) {
+                    throw new IOException("Opening book too large, use a smaller depth");
+                }
+                out.writeLong(hash(key));
+                out.writeInt((int) offset);
+                offset += book.get(key).length;
+            }
+            for (String key : keys) {
+                out.write(book.get(key));
+            }
+        }
+    }
+
+    /**
+     * 'Helper' that hashes a key with 64-bit FNV-1a.
+     *
+     * @param key of a state and guess
+     * @return hash of the key
+     */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * 'Helper' for generate that collects the letters used by a bucket.
+     *
+     * @param bucket sorted words of one length
+     * @return distinct letters in ascending order
+     */
+    private static char[] alphabet(SortedSet<String> bucket) {
+        TreeSet<Character> letters = new TreeSet<>();
+        for (String word : bucket) {
+            for (int i = 0; i < word.length(); i++) {
+                letters.add(word.charAt(i));
+            }
+        }
+        char[] alphabet = new char[letters.size()];
+        int i = 0;
+        for (char letter : letters) {
+            alphabet[i++] = letter;
+        }
+        return alphabet;
+    }
+
+    /**
+     * State shared by one walk over a length bucket.
+     */
+    private static final class Walk {
+
+        /**
+         * Words of the length by id.
+         */
+        final String[] bucket;
+        /**
+         * Letters to guess.
+         */
+        final char[] alphabet;
+        /**
+         * Number of guesses to cover.
+         */
+        final int depth;
+        /**
+         * Partition engine reused by every step.
+         */
+        final FamilyPartitioner partitioner;
+        /**
+         * Encoded entries by key, shared by every length.
+         */
+        final Map<String, byte[]> book;
+
+        /**
+         * Creates new main.OpeningBook.Walk.
+         *
+         * @param bucket words of the length by id
+         * @param alphabet letters to guess
+         * @param depth number of guesses to cover
+         * @param partitioner reused by every step
+         * @param book encoded entries by key
+         */
+        Walk(String[] bucket, char[] alphabet, int depth, FamilyPartitioner partitioner, Map<String, byte[]> book) {
+            this.bucket = bucket;
+            this.alphabet = alphabet;
+            this.depth = depth;
+            this.partitioner = partitioner;
+            this.book = book;
+        }
+    }
+}
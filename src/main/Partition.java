@@ -0,0 +1,191 @@
+package main;
+
+/**
+ * Read-only summary of how the current words of a game split into families for a guess, handed to a
+ * main.FamilyStrategy. Families are addressed by their index, from 0 to families() - 1, and described by their key,
+ * a position bitmask of the guess with position 0 in the most significant of length() bits, their size and their hits,
+ * the number of positions they reveal. Everything is taken from the family counts the partition already built, so
+ * nothing here reads a word.
+ */
+public final class Partition {
+
+    /**
+     * Words per family of the last partition of the game.
+     */
+    private FamilyCounts counts;
+    /**
+     * Keys of the families, dense.
+     */
+    private long[] keys;
+    /**
+     * Sizes of the families, dense.
+     */
+    private int[] sizes;
+    /**
+     * Number of families copied into keys and sizes, -1 if they have not been copied yet.
+     */
+    private int families;
+    /**
+     * Number of words partitioned.
+     */
+    private int words;
+    /**
+     * Guess the words were partitioned for.
+     */
+    private char guess;
+    /**
+     * Length of the words.
+     */
+    private int length;
+    /**
+     * Wrong guesses the player has left before the guess.
+     */
+    private int guessesLeft;
+
+    /**
+     * Creates new empty main.Partition.
+     */
+    Partition() {
+        this.keys = new long[0];
+        this.sizes = new int[0];
+    }
+
+    /**
+     * Points the summary at a new partition.
+     *
+     * @param counts words per family of the partition
+     * @param guess the words were partitioned for
+     * @param length of the words
+     * @param words number of words partitioned
+     * @param guessesLeft wrong guesses the player has left before the guess
+     */
+    void reset(FamilyCounts counts, char guess, int length, int words, int guessesLeft) {
+        this.counts = counts;
+        this.guess = guess;
+        this.length = length;
+        this.words = words;
+        this.guessesLeft = guessesLeft;
+        this.families = -1;
+    }
+
+    /**
+     * 'Getter' for the guess.
+     *
+     * @return guess the words were partitioned for
+     */
+    public char guess() {
+        return this.guess;
+    }
+
+    /**
+     * 'Getter' for the word length.
+     *
+     * @return length of the words, and number of bits of a key
+     */
+    public int length() {
+        return this.length;
+    }
+
+    /**
+     * 'Getter' for the number of words.
+     *
+     * @return words partitioned, the sum of every family's size
+     */
+    public int words() {
+        return this.words;
+    }
+
+    /**
+     * 'Getter' for the guesses left.
+     *
+     * @return wrong guesses the player has left before the guess
+     */
+    public int guessesLeft() {
+        return this.guessesLeft;
+    }
+
+    /**
+     * 'Getter' for the number of families.
+     *
+     * @return family count
+     */
+    public int families() {
+        return this.counts.families();
+    }
+
+    /**
+     * 'Getter' for the key of a family.
+     *
+     * @param family index
+     * @return position bitmask of the guess in the family's words
+     */
+    public long key(int family) {
+        dense();
+        return this.keys[family];
+    }
+
+    /**
+     * 'Getter' for the size of a family.
+     *
+     * @param family index
+     * @return number of words in the family
+     */
+    public int size(int family) {
+        dense();
+        return this.sizes[family];
+    }
+
+    /**
+     * 'Getter' for the hits of a family.
+     *
+     * @param family index
+     * @return positions the family reveals the guess at, 0 for the family of words without the guess
+     */
+    public int hits(int family) {
+        return Long.bitCount(key(family));
+    }
+
+    /**
+     * Looks the size of a family up by key.
+     *
+     * @param key of the family
+     * @return number of words in the family, 0 if there is no such family
+     */
+    public int sizeOf(long key) {
+        return this.counts.size(key);
+    }
+
+    /**
+     * Finds the largest family, the choice of the greedy game.
+     *
+     * @return key of the largest family, ties broken as by prefers
+     */
+    public long largest() {
+        return this.counts.largest(this.guess);
+    }
+
+    /**
+     * Orders two families by size, breaking ties the same way largest does.
+     *
+     * @param family index of one family
+     * @param other index of the other family
+     * @return true if the first family is larger, or as large and wins the tie
+     */
+    public boolean prefers(int family, int other) {
+        return size(family) > size(other)
+                || (size(family) == size(other) && FamilyCounts.winsTie(key(family), key(other), this.guess));
+    }
+
+    /**
+     * 'Helper' that copies the families into dense arrays the first time one is addressed by index.
+     */
+    private void dense() {
+        if (this.families >= 0) return;
+        this.families = this.counts.families();
+        if (this.keys.length < this.families) {
+            this.keys = new long[this.families];
+            this.sizes = new int[this.families];
+        }
+        this.counts.copyTo(this.keys, this.sizes);
+    }
+}
@@ -0,0 +1,193 @@
+package main;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of partition results shared by every game created from one main.DictionaryIndex.
+ *
+ * The current family of a game is fully determined by its word length, its guessed letters and its pattern: it is
+ * every word of that length that shows exactly the revealed letters and none of the other guessed letters. Two games
+ * in the same state that receive the same guess therefore end up with the same family and pattern, so the pattern
+ * the first one was left with can be handed to the second one, which then only has to drop the words that do not fit
+ * it instead of counting every family again. Only patterns are stored, so an entry costs the same whatever the size of
+ * its family, and a hit allocates nothing beyond the words the game already holds.
+ *
+ * Entries are spread over segments, each an access-ordered LinkedHashMap guarded by its own lock, so concurrent games
+ * rarely contend and each segment evicts its least recently used entry once full. The bound is shared out between the
+ * segments, so the cache never holds more than maxEntries partitions, and a segment left without a share of a bound
+ * smaller than the number of segments caches nothing.
+ */
+public final class PartitionCache {
+
+    /**
+     * Number of segments, must be a power of two.
+     */
+    private static final int SEGMENTS = 16;
+
+    /**
+     * Dictionary whose games may use this cache.
+     */
+    private final DictionaryIndex dictionary;
+    /**
+     * Segments of the cache.
+     */
+    private final List<Map<String, String>> segments;
+    /**
+     * Lookups that found an entry.
+     */
+    private final LongAdder hits;
+    /**
+     * Lookups that found no entry.
+     */
+    private final LongAdder misses;
+    /**
+     * Entries dropped to stay within the bound.
+     */
+    private final LongAdder evictions;
+
+    /**
+     * Creates new main.PartitionCache.
+     *
+     * @param dictionary whose games may use this cache
+     * @param maxEntries upper bound on the number of cached partitions
+     * @throws IllegalArgumentException if maxEntries is less than 1
+     */
+    public PartitionCache(DictionaryIndex dictionary, int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.dictionary = dictionary;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+        List<Map<String, String>> segments = new ArrayList<>(SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            // The bound is shared out exactly, the first segments taking one entry more when it does not divide.
+            int segmentEntries = maxEntries / SEGMENTS + (i < maxEntries % SEGMENTS ? 1 : 0);
+            segments.add(new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    if (size() > segmentEntries) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            });
+        }
+        this.segments = Collections.unmodifiableList(segments);
+    }
+
+    /**
+     * Builds the key of a guess made in a game state.
+     *
+     * @param pattern of the game before the guess, without spaces
+     * @param letters guessed so far, including the guess, in natural order
+     * @param guess that user provided
+     * @return key of the state and guess
+     */
+    static String keyOf(String pattern, Collection<Character> letters, char guess) {
+        StringBuilder key = new StringBuilder(pattern.length() + letters.size() + 2);
+        key.append(pattern).append('\0');
+        for (char letter : letters) {
+            key.append(letter);
+        }
+        return key.append('\0').append(guess).toString();
+    }
+
+    /**
+     * 'Getter' for the dictionary.
+     *
+     * @return dictionary whose games may use this cache
+     */
+    public DictionaryIndex dictionary() {
+        return this.dictionary;
+    }
+
+    /**
+     * Looks up the result of a guess.
+     *
+     * @param key of the state and guess
+     * @return pattern the guess left the game with, without spaces, or null if there is none
+     */
+    String get(String key) {
+        Map<String, String> segment = segmentOf(key);
+        String pattern;
+        synchronized (segment) {
+            pattern = segment.get(key);
+        }
+        if (pattern == null) {
+            this.misses.increment();
+        } else {
+            this.hits.increment();
+        }
+        return pattern;
+    }
+
+    /**
+     * Stores the result of a guess.
+     *
+     * @param key of the state and guess
+     * @param pattern the guess left the game with, without spaces
+     */
+    void put(String key, String pattern) {
+        Map<String, String> segment = segmentOf(key);
+        synchronized (segment) {
+            segment.put(key, pattern);
+        }
+    }
+
+    /**
+     * 'Getter' for hits.
+     *
+     * @return number of lookups that found an entry
+     */
+    public long hits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * 'Getter' for misses.
+     *
+     * @return number of lookups that found no entry
+     */
+    public long misses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * 'Getter' for evictions.
+     *
+     * @return number of entries dropped to stay within the bound
+     */
+    public long evictions() {
+        return this.evictions.sum();
+    }
+
+    /**
+     * 'Getter' for the number of cached partitions.
+     *
+     * @return entry count
+     */
+    public int size() {
+        int size = 0;
+        for (Map<String, String> segment : this.segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 'Helper' that picks the segment of a key.
+     *
+     * @param key of the state and guess
+     * @return segment holding the key
+     */
+    private Map<String, String> segmentOf(String key) {
+        int hash = key.hashCode();
+        return this.segments.get((hash ^ (hash >>> 16)) & (SEGMENTS - 1));
+    }
+}
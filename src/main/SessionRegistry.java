@@ -0,0 +1,382 @@
+package main;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Registry of live games for applications that host many of them in one JVM, such as main.HangmanServer.
+ *
+ * Games are found by id in a ConcurrentHashMap, so creating and looking up games never takes a lock shared between
+ * games. main.HangmanManager is not thread-safe, so every operation on a game runs while holding that game's own
+ * monitor: operations on one game are serialized, operations on different games run in parallel.
+ *
+ * Games that stay idle for the idle timeout are expired through a hashed timing wheel of SLOTS slots, each one tick of
+ * idleTimeout / SLOTS long. A game is placed in the slot of the tick its timeout would run out at if it stayed idle.
+ * Using a game only records the tick it was used at, so the wheel is not touched on the hot path. expire turns the
+ * wheel up to the current tick and looks only at the games of the slots it passes: those idle for the whole timeout
+ * are removed, the others are moved to the slot of their new deadline. Each game is therefore looked at about once per
+ * timeout rather than once per call, whatever the number of games. Every slot is split into STRIPES lists by session id,
+ * each guarded by its own lock, so games created within the same tick on different cores rarely wait for each other.
+ */
+public final class SessionRegistry {
+
+    /**
+     * Slots of the timing wheel.
+     */
+    public static final int SLOTS = 256;
+    /**
+     * Lists each slot is split into, the smallest power of two at least the number of processors.
+     */
+    static final int STRIPES = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1;
+
+    /**
+     * Live sessions by id.
+     */
+    private final ConcurrentMap<Long, Session> sessions;
+    /**
+     * Source of session ids.
+     */
+    private final AtomicLong nextId;
+    /**
+     * Sessions by the slot of their deadline and the stripe of their id, at slot * STRIPES + stripe, each list guarded
+     * by its own lock.
+     */
+    private final List<List<Session>> wheel;
+    /**
+     * Length of a tick of the wheel in nanoseconds.
+     */
+    private final long tickNanos;
+    /**
+     * Clock of the registry, in nanoseconds.
+     */
+    private final LongSupplier clock;
+    /**
+     * Reading of the clock at tick 0.
+     */
+    private final long origin;
+    /**
+     * Told about every game that expires, with its id, while holding the game's monitor.
+     */
+    private final BiConsumer<Long, HangmanManager> expired;
+    /**
+     * Last tick whose slot expire went through. Guarded by wheel.
+     */
+    private long turnedTo;
+
+    /**
+     * Creates new main.SessionRegistry.
+     *
+     * @param idleTimeout after which an unused game expires
+     * @param expired told about every game that expires, with its id, null if nothing has to be done
+     * @throws IllegalArgumentException if the idle timeout is shorter than SLOTS nanoseconds
+     */
+    public SessionRegistry(Duration idleTimeout, BiConsumer<Long, HangmanManager> expired) {
+        this(idleTimeout, expired, System::nanoTime);
+    }
+
+    /**
+     * Creates new main.SessionRegistry that reads the time from a given clock, for tests and simulations.
+     *
+     * @param idleTimeout after which an unused game expires
+     * @param expired told about every game that expires, with its id, null if nothing has to be done
+     * @param clock returning the time in nanoseconds
+     * @throws IllegalArgumentException if the idle timeout is shorter than SLOTS nanoseconds
+     */
+    public SessionRegistry(Duration idleTimeout, BiConsumer<Long, HangmanManager> expired, LongSupplier clock) {
+        if (idleTimeout.toNanos() < SLOTS) {
+            throw new IllegalArgumentException();
+        }
+        this.sessions = new ConcurrentHashMap<>();
+        this.nextId = new AtomicLong();
+        this.tickNanos = idleTimeout.toNanos() / SLOTS;
+        this.clock = clock;
+        this.origin = clock.getAsLong();
+        this.expired = expired != null ? expired : (id, game) -> { };
+        List<List<Session>> wheel = new ArrayList<>(SLOTS * STRIPES);
+        for (int i = 0; i < SLOTS * STRIPES; i++) {
+            wheel.add(new ArrayList<>());
+        }
+        this.wheel = Collections.unmodifiableList(wheel);
+    }
+
+    /**
+     * Adds a game under a new id.
+     *
+     * @param game to add, not used by any other thread
+     * @return id of the game, greater than every id given out or added before
+     */
+    public long create(HangmanManager game) {
+        return create(game, Session::id);
+    }
+
+    /**
+     * Adds a game under a new id, running a first operation on it while holding its monitor, so that no other
+     * operation reaches the game before that one is done.
+     *
+     * @param game to add, not used by any other thread
+     * @param operation to run on the session of the game
+     * @param <T> result of the operation
+     * @return what the operation returned
+     */
+    public <T> T create(HangmanManager game, Function<Session, T> operation) {
+        return add(this.nextId.incrementAndGet(), game, operation);
+    }
+
+    /**
+     * Adds a game under a known id, such as one resumed from a main.GameLog. Later ids given out by create are
+     * greater.
+     *
+     * @param id of the game
+     * @param game to add, not used by any other thread
+     * @throws IllegalArgumentException if a game with that id is live
+     */
+    public void add(long id, HangmanManager game) {
+        add(id, game, Session::id);
+    }
+
+    /**
+     * 'Helper' for create and add that registers a game and runs a first operation on it.
+     *
+     * @param id of the game
+     * @param game to add
+     * @param operation to run on the session of the game
+     * @param <T> result of the operation
+     * @return what the operation returned
+     * @throws IllegalArgumentException if a game with that id is live
+     */
+    private <T> T add(long id, HangmanManager game, Function<Session, T> operation) {
+        Session session = new Session(id, game, tick());
+        synchronized (session) {
+            if (this.sessions.putIfAbsent(id, session) != null) {
+                throw new IllegalArgumentException();
+            }
+            this.nextId.accumulateAndGet(id, Math::max);
+            schedule(session);
+            return operation.apply(session);
+        }
+    }
+
+    /**
+     * Runs an operation on a game while holding its monitor, and counts the game as used.
+     *
+     * @param id of the game
+     * @param operation to run on the session of the game
+     * @param <T> result of the operation
+     * @return what the operation returned
+     * @throws NoSuchElementException if there is no such game, or it ended while the operation waited for it
+     */
+    public <T> T withSession(long id, Function<Session, T> operation) {
+        Session session = session(id);
+        synchronized (session) {
+            if (session.ended) {
+                throw new NoSuchElementException();
+            }
+            session.usedAt = tick();
+            return operation.apply(session);
+        }
+    }
+
+    /**
+     * Records a guess in a game.
+     *
+     * @param id of the game
+     * @param guess that user provided
+     * @return number of matches, as returned by record
+     * @throws NoSuchElementException if there is no such game
+     * @throws IllegalArgumentException if the guess was already made or is not a letter
+     * @throws IllegalStateException if the game is over
+     */
+    public int guess(long id, char guess) {
+        return withSession(id, session -> session.game.record(guess));
+    }
+
+    /**
+     * Ends a game, running a last operation on it while holding its monitor. The game is gone from the registry
+     * once the operation starts.
+     *
+     * @param id of the game
+     * @param operation to run on the session of the game
+     * @param <T> result of the operation
+     * @return what the operation returned
+     * @throws NoSuchElementException if there is no such game
+     */
+    public <T> T end(long id, Function<Session, T> operation) {
+        Session session = session(id);
+        synchronized (session) {
+            if (session.ended) {
+                throw new NoSuchElementException();
+            }
+            session.ended = true;
+            this.sessions.remove(id, session);
+            return operation.apply(session);
+        }
+    }
+
+    /**
+     * 'Getter' for the number of live games.
+     *
+     * @return game count
+     */
+    public int size() {
+        return this.sessions.size();
+    }
+
+    /**
+     * Turns the wheel up to the current time and removes every game that has been idle for the idle timeout. Meant to
+     * be called periodically, at least once per tick for timely expiry.
+     *
+     * @return number of games expired
+     */
+    public int expire() {
+        synchronized (this.wheel) {
+            long now = tick();
+            this.turnedTo = Math.max(this.turnedTo, now - SLOTS);
+            int count = 0;
+            while (this.turnedTo < now) {
+                this.turnedTo++;
+                int slot = (int) (this.turnedTo % SLOTS) * STRIPES;
+                for (int stripe = 0; stripe < STRIPES; stripe++) {
+                    List<Session> list = this.wheel.get(slot + stripe);
+                    List<Session> due;
+                    synchronized (list) {
+                        if (list.isEmpty()) continue;
+                        due = new ArrayList<>(list);
+                        list.clear();
+                    }
+                    for (Session session : due) {
+                        if (expire(session, now)) count++;
+                    }
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * 'Helper' for expire that removes a game idle for the idle timeout, or moves it to the slot of its new deadline.
+     *
+     * @param session due in the slot that was turned through
+     * @param now current tick
+     * @return true if the game expired
+     */
+    private boolean expire(Session session, long now) {
+        synchronized (session) {
+            if (session.ended) return false;
+            if (now - session.usedAt < SLOTS) {
+                schedule(session);
+                return false;
+            }
+            session.ended = true;
+            this.sessions.remove(session.id, session);
+            this.expired.accept(session.id, session.game);
+            return true;
+        }
+    }
+
+    /**
+     * 'Helper' that places a session in the stripe of its id within the slot of its deadline. Must be called while
+     * holding the session's monitor.
+     *
+     * @param session to place
+     */
+    private void schedule(Session session) {
+        int slot = (int) ((session.usedAt + SLOTS) % SLOTS);
+        List<Session> list = this.wheel.get(slot * STRIPES + (int) (session.id & (STRIPES - 1)));
+        synchronized (list) {
+            list.add(session);
+        }
+    }
+
+    /**
+     * 'Helper' that looks up a session.
+     *
+     * @param id of the game
+     * @return session of the game
+     * @throws NoSuchElementException if there is no such game
+     */
+    private Session session(long id) {
+        Session session = this.sessions.get(id);
+        if (session == null) {
+            throw new NoSuchElementException();
+        }
+        return session;
+    }
+
+    /**
+     * 'Helper' that reads the current tick.
+     *
+     * @return ticks since the registry was created
+     */
+    private long tick() {
+        return (this.clock.getAsLong() - this.origin) / this.tickNanos;
+    }
+
+    /**
+     * Live game handed to the operations of the registry, which run while holding its monitor.
+     */
+    public static final class Session {
+
+        /**
+         * Id of the game.
+         */
+        private final long id;
+        /**
+         * Manager of the game.
+         */
+        private HangmanManager game;
+        /**
+         * Tick the game was last used at.
+         */
+        private long usedAt;
+        /**
+         * Whether the game ended or expired.
+         */
+        private boolean ended;
+
+        /**
+         * Creates new main.SessionRegistry.Session.
+         *
+         * @param id of the game
+         * @param game manager of the game
+         * @param usedAt tick the game was created at
+         */
+        private Session(long id, HangmanManager game, long usedAt) {
+            this.id = id;
+            this.game = game;
+            this.usedAt = usedAt;
+        }
+
+        /**
+         * 'Getter' for the id.
+         *
+         * @return id of the game
+         */
+        public long id() {
+            return this.id;
+        }
+
+        /**
+         * 'Getter' for the game.
+         *
+         * @return manager of the game
+         */
+        public HangmanManager game() {
+            return this.game;
+        }
+
+        /**
+         * Swaps the manager of the game, such as for one rebuilt without its last guess.
+         *
+         * @param game new manager of the game
+         */
+        public void replace(HangmanManager game) {
+            this.game = game;
+        }
+    }
+}
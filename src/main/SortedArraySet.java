@@ -0,0 +1,150 @@
+package main;
+
+import java.util.*;
+
+/**
+ * Un-modifiable sorted set of words backed by a range of an already sorted, duplicate free array. Used for the
+ * buckets of main.DictionaryIndex, which are cheaper to hold as a flat array than as a TreeSet and can still be
+ * copied into a TreeSet in linear time.
+ */
+final class SortedArraySet extends AbstractSet<String> implements SortedSet<String> {
+
+    /**
+     * Sorted words, shared between this set and its views.
+     */
+    private final String[] words;
+    /**
+     * First index of the range, inclusive.
+     */
+    private final int from;
+    /**
+     * Last index of the range, exclusive.
+     */
+    private final int to;
+
+    /**
+     * Creates new main.SortedArraySet over a whole array.
+     *
+     * @param words sorted in natural order without duplicates, must not be modified afterwards
+     */
+    SortedArraySet(String[] words) {
+        this(words, 0, words.length);
+    }
+
+    /**
+     * Creates new main.SortedArraySet over a range of an array.
+     *
+     * @param words sorted in natural order without duplicates
+     * @param from first index, inclusive
+     * @param to last index, exclusive
+     */
+    private SortedArraySet(String[] words, int from, int to) {
+        this.words = words;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * 'Getter' for a word by its position in the set.
+     *
+     * @param index of the word within this set
+     * @return word at that position
+     * @throws IndexOutOfBoundsException if the index is outside of the set
+     */
+    String get(int index) {
+        Objects.checkIndex(index, size());
+        return this.words[this.from + index];
+    }
+
+    /**
+     * Finds the position of a word in the set.
+     *
+     * @param word to look for
+     * @return index of the word within this set, or a negative value if it is absent
+     */
+    int indexOf(Object word) {
+        if (!(word instanceof String)) return -1;
+        int index = Arrays.binarySearch(this.words, this.from, this.to, (String) word);
+        return index < 0 ? -1 : index - this.from;
+    }
+
+    @Override
+    public int size() {
+        return this.to - this.from;
+    }
+
+    @Override
+    public boolean contains(Object word) {
+        return indexOf(word) >= 0;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<>() {
+            private int next = from;
+
+            @Override
+            public boolean hasNext() {
+                return this.next < to;
+            }
+
+            @Override
+            public String next() {
+                if (this.next >= to) {
+                    throw new NoSuchElementException();
+                }
+                return words[this.next++];
+            }
+        };
+    }
+
+    @Override
+    public Comparator<? super String> comparator() {
+        return null;
+    }
+
+    @Override
+    public SortedSet<String> subSet(String fromElement, String toElement) {
+        if (fromElement.compareTo(toElement) > 0) {
+            throw new IllegalArgumentException();
+        }
+        return new SortedArraySet(this.words, bound(fromElement), bound(toElement));
+    }
+
+    @Override
+    public SortedSet<String> headSet(String toElement) {
+        return new SortedArraySet(this.words, this.from, bound(toElement));
+    }
+
+    @Override
+    public SortedSet<String> tailSet(String fromElement) {
+        return new SortedArraySet(this.words, bound(fromElement), this.to);
+    }
+
+    @Override
+    public String first() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return this.words[this.from];
+    }
+
+    @Override
+    public String last() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return this.words[this.to - 1];
+    }
+
+    /**
+     * 'Helper' that finds the first index of the range holding a word no smaller than the given one.
+     *
+     * @param word bound to look for
+     * @return array index of the bound, clamped to the range
+     */
+    private int bound(String word) {
+        int index = Arrays.binarySearch(this.words, this.from, this.to, word);
+        return index < 0 ? -index - 1 : index;
+    }
+}
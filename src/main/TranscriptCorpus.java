@@ -0,0 +1,316 @@
+package main;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Corpus of recorded games, replayed to prove that a change to the engine leaves every game as it was. Bots play
+ * games of every word length, guess budget and mode, and every guess is written down along with what record
+ * returned, the number of words left and the pattern after it. Replaying a transcript makes the same guesses on a
+ * fresh game and checks all three after every one of them, timing each call to record, so an optimized engine can
+ * be shown to be equivalent to the one that recorded the corpus and compared against it for speed.
+ *
+ * The corpus is a text file. It starts with the line "transcripts" and the format version, then one line per length
+ * with the fingerprint of the words of that length, so that a corpus is never replayed against another dictionary.
+ * Each transcript then takes one line: the mode, the length and the guess budget, followed by one field per guess
+ * made of the letter, the matches, the words left and the pattern, separated by commas.
+ *
+ * Usage: java main.TranscriptCorpus generate corpus [games per cell] [guesses] [seed]
+ *        java main.TranscriptCorpus replay corpus [report.csv] [engine]
+ * where guesses is a comma separated list of guess budgets and engine one of collection, indexed and shared.
+ */
+public class TranscriptCorpus {
+
+    /**
+     * First word of every corpus.
+     */
+    private static final String MAGIC = "transcripts";
+    /**
+     * Version of the corpus format.
+     */
+    private static final int VERSION = 1;
+    /**
+     * Guess budgets played when none are given.
+     */
+    private static final String BUDGETS = "1,4,8,13,26";
+    /**
+     * Bots the games of a cell are shared out between.
+     */
+    private static final List<String> BOTS = List.of("frequency", "random", "oracle");
+    /**
+     * Modes every corpus is played in.
+     */
+    private static final List<String> MODES = List.of("greedy", "dubious");
+    /**
+     * Entries of the cache of games replayed with the shared engine.
+     */
+    private static final int CACHE_ENTRIES = 4096;
+    /**
+     * CSV header of the replay report.
+     */
+    private static final String HEADER = "line,mode,length,guesses,steps,record_ns,max_record_ns,ok";
+
+    /**
+     * Dictionary the games are played with.
+     */
+    private final DictionaryIndex dictionary;
+
+    /**
+     * Creates new main.TranscriptCorpus.
+     *
+     * @param dictionary the games are played with
+     */
+    public TranscriptCorpus(DictionaryIndex dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Generates or replays a corpus against the dictionary.
+     *
+     * @param args generate or replay, the corpus file, then the options of that command
+     * @throws IOException if cannot read dictionary or corpus, or write corpus or report
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || !(args[0].equals("generate") || args[0].equals("replay"))) {
+            System.out.println("Usage: java main.TranscriptCorpus generate <corpus> [games per cell] [guesses] [seed]");
+            System.out.println("       java main.TranscriptCorpus replay <corpus> [report.csv] "
+                    + "[collection|indexed|shared]");
+            return;
+        }
+        DictionaryIndex dictionary = HangmanMain.loadDictionary();
+        TranscriptCorpus corpus = new TranscriptCorpus(dictionary);
+        if (args[0].equals("generate")) {
+            int games = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+            int[] budgets = Arrays.stream((args.length > 3 ? args[3] : BUDGETS).split(","))
+                    .mapToInt(Integer::parseInt).toArray();
+            long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+            try (Writer output = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(args[1]),
+                    StandardCharsets.UTF_8))) {
+                System.out.printf("%d transcripts written%n", corpus.generate(games, budgets, seed, output));
+            }
+            return;
+        }
+        String engine = args.length > 3 ? args[3] : "indexed";
+        OpeningBook book = engine.equals("shared") ? HangmanMain.loadOpeningBook(dictionary) : null;
+        try (BufferedReader input = new BufferedReader(new InputStreamReader(new FileInputStream(args[1]),
+                StandardCharsets.UTF_8));
+             Writer report = args.length > 2 ? new BufferedWriter(new OutputStreamWriter(
+                     new FileOutputStream(args[2]), StandardCharsets.UTF_8)) : Writer.nullWriter()) {
+            Replay replay = corpus.replay(input, engine, book, report);
+            System.out.printf("%d transcripts, %d guesses replayed (%.0f ns/record), %d mismatched%n",
+                    replay.transcripts, replay.records,
+                    replay.records == 0 ? 0.0 : (double) replay.recordNanos / replay.records, replay.mismatches.size());
+            for (String mismatch : replay.mismatches) {
+                System.out.println(mismatch);
+            }
+        }
+    }
+
+    /**
+     * Plays games of every word length of the dictionary, every guess budget and both modes, and writes their
+     * transcripts. The bots take turns from game to game and draw from one seeded source of randomness, so the same
+     * arguments always give the same corpus.
+     *
+     * @param games per length, budget and mode
+     * @param budgets wrong guesses granted, one cell of games per budget
+     * @param seed of the random bot
+     * @param output to write the corpus to
+     * @return number of transcripts written
+     * @throws IOException if output cannot be written
+     * @throws IllegalArgumentException if games is less than 1 or a budget is less than 1
+     */
+    public int generate(int games, int[] budgets, long seed, Writer output) throws IOException {
+        if (games < 1) {
+            throw new IllegalArgumentException();
+        }
+        for (int budget : budgets) {
+            if (budget < 1) throw new IllegalArgumentException();
+        }
+        output.write(MAGIC + " " + VERSION + System.lineSeparator());
+        List<Integer> lengths = new ArrayList<>();
+        for (int length = 1; length <= Math.min(this.dictionary.maxLength(), FamilyPartitioner.MAX_LENGTH); length++) {
+            if (this.dictionary.count(length) == 0) continue;
+            lengths.add(length);
+            output.write("fingerprint " + length + " " + this.dictionary.fingerprint(length) + System.lineSeparator());
+        }
+        Random random = new Random(seed);
+        int written = 0;
+        for (int length : lengths) {
+            for (int budget : budgets) {
+                for (String mode : MODES) {
+                    for (int game = 0; game < games; game++) {
+                        Guesser guesser = Guesser.named(BOTS.get(game % BOTS.size()));
+                        HangmanManager hangman = newGame(mode, length, budget, "indexed", null, null);
+                        StringBuilder line = new StringBuilder(mode + " " + length + " " + budget);
+                        while (hangman.guessesLeft() > 0 && hangman.pattern().contains("-")) {
+                            char guess = guesser.guess(hangman, random);
+                            int matches = hangman.record(guess);
+                            line.append(' ').append(guess).append(',').append(matches).append(',')
+                                    .append(hangman.words().size()).append(',').append(hangman.rawPattern());
+                        }
+                        output.write(line + System.lineSeparator());
+                        written++;
+                    }
+                }
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Replays every transcript of a corpus on a fresh game, checking what record returns, the number of words left
+     * and the pattern after every guess, and writes a CSV row per transcript with the time spent in record.
+     *
+     * @param corpus to read the transcripts from
+     * @param engine that plays the games: collection for games created from the words of the length, indexed for
+     * games of the dictionary index, shared for games of the index that share a partition cache and the book
+     * @param book of the first guesses for the dictionary, used by the shared engine, null if there is none
+     * @param report to write CSV rows to, starting with a header
+     * @return totals of the replay, with the first difference of every transcript that did not replay as recorded
+     * @throws IOException if the corpus cannot be read or the report written
+     * @throws IllegalArgumentException if the engine is unknown, or the corpus is malformed or was recorded with
+     * another dictionary
+     */
+    public Replay replay(BufferedReader corpus, String engine, OpeningBook book, Writer report) throws IOException {
+        if (!engine.equals("collection") && !engine.equals("indexed") && !engine.equals("shared")) {
+            throw new IllegalArgumentException(engine);
+        }
+        if (!(MAGIC + " " + VERSION).equals(corpus.readLine())) {
+            throw new IllegalArgumentException("not a corpus of version " + VERSION);
+        }
+        PartitionCache cache = engine.equals("shared") ? new PartitionCache(this.dictionary, CACHE_ENTRIES) : null;
+        report.write(HEADER);
+        report.write(System.lineSeparator());
+        Replay replay = new Replay();
+        int number = 1;
+        for (String line = corpus.readLine(); line != null; line = corpus.readLine()) {
+            number++;
+            String[] fields = line.split(" ");
+            if (fields[0].equals("fingerprint")) {
+                if (this.dictionary.fingerprint(Integer.parseInt(fields[1])) != Integer.parseInt(fields[2])) {
+                    throw new IllegalArgumentException("recorded with another dictionary");
+                }
+                continue;
+            }
+            if (fields.length < 3 || !MODES.contains(fields[0])) {
+                throw new IllegalArgumentException("malformed line " + number);
+            }
+            int length = Integer.parseInt(fields[1]);
+            int budget = Integer.parseInt(fields[2]);
+            HangmanManager hangman = newGame(fields[0], length, budget, engine, cache, book);
+            String mismatch = null;
+            long nanos = 0;
+            long maxNanos = 0;
+            for (int step = 3; step < fields.length && mismatch == null; step++) {
+                String[] expected = fields[step].split(",");
+                char guess = expected[0].charAt(0);
+                int matches;
+                long start = System.nanoTime();
+                try {
+                    matches = hangman.record(guess);
+                } catch (RuntimeException e) {
+                    mismatch = "line " + number + " guess " + (step - 2) + " '" + guess + "': record threw " + e;
+                    break;
+                }
+                long elapsed = System.nanoTime() - start;
+                nanos += elapsed;
+                maxNanos = Math.max(maxNanos, elapsed);
+                replay.records++;
+                String actual = guess + "," + matches + "," + hangman.words().size() + "," + hangman.rawPattern();
+                if (!actual.equals(fields[step])) {
+                    mismatch = "line " + number + " guess " + (step - 2) + ": expected " + fields[step] + ", got "
+                            + actual;
+                }
+            }
+            replay.transcripts++;
+            replay.recordNanos += nanos;
+            if (mismatch != null) replay.mismatches.add(mismatch);
+            report.write(String.format(Locale.ROOT, "%d,%s,%d,%d,%d,%d,%d,%b", number, fields[0], length, budget,
+                    fields.length - 3, nanos, maxNanos, mismatch == null));
+            report.write(System.lineSeparator());
+        }
+        return replay;
+    }
+
+    /**
+     * 'Helper' that starts a game.
+     *
+     * @param mode greedy for main.HangmanManager, dubious for main.DubiousHangmanManager
+     * @param length of the words
+     * @param guesses wrong guesses granted
+     * @param engine collection, indexed or shared, as for replay
+     * @param cache shared by the games of the shared engine, null for the others
+     * @param book of the first guesses for the shared engine, null if there is none
+     * @return new game
+     */
+    private HangmanManager newGame(String mode, int length, int guesses, String engine, PartitionCache cache,
+                                   OpeningBook book) {
+        boolean dubious = mode.equals("dubious");
+        if (engine.equals("collection")) {
+            Collection<String> words = this.dictionary.words(length);
+            return dubious ? new DubiousHangmanManager(words, length, guesses)
+                    : new HangmanManager(words, length, guesses);
+        }
+        return dubious ? new DubiousHangmanManager(this.dictionary, length, guesses, cache, book)
+                : new HangmanManager(this.dictionary, length, guesses, cache, book);
+    }
+
+    /**
+     * Totals of a replay.
+     */
+    public static final class Replay {
+        /**
+         * Transcripts replayed.
+         */
+        int transcripts;
+        /**
+         * Calls to record.
+         */
+        long records;
+        /**
+         * Time spent in record, in nanoseconds.
+         */
+        long recordNanos;
+        /**
+         * First difference of every transcript that did not replay as recorded.
+         */
+        final List<String> mismatches = new ArrayList<>();
+
+        /**
+         * 'Getter' for transcripts.
+         *
+         * @return transcripts replayed
+         */
+        public int transcripts() {
+            return this.transcripts;
+        }
+
+        /**
+         * 'Getter' for records.
+         *
+         * @return calls to record
+         */
+        public long records() {
+            return this.records;
+        }
+
+        /**
+         * 'Getter' for the time spent in record.
+         *
+         * @return nanoseconds spent in record over every transcript
+         */
+        public long recordNanos() {
+            return this.recordNanos;
+        }
+
+        /**
+         * 'Getter' for mismatches.
+         *
+         * @return first difference of every transcript that did not replay as recorded, empty if all did
+         */
+        public List<String> mismatches() {
+            return Collections.unmodifiableList(this.mismatches);
+        }
+    }
+}
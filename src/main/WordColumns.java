@@ -0,0 +1,141 @@
+package main;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.*;
+
+/**
+ * Column-wise copy of the current family of a main.FamilyPartitioner: one byte array per letter position, holding the
+ * alphabet index of the letter every word has there. Keying a guess then reads one column at a time, eight words per
+ * long, and compares all eight bytes against the guess at once with bit arithmetic, so a column where none of the
+ * eight words has the guess costs a single comparison instead of eight character reads.
+ *
+ * The columns follow the family as it is narrowed, in the iteration order of the words. Since a family only ever
+ * shrinks, a family of the size the columns hold is the family they hold; one of another size, as left behind by a
+ * stored pattern or a forced single word, is loaded again before it is keyed.
+ */
+final class WordColumns {
+
+    /**
+     * Largest alphabet whose indexes fit into a byte.
+     */
+    static final int MAX_LETTERS = 1 << Byte.SIZE;
+
+    /**
+     * Lowest bit of every byte of a long.
+     */
+    private static final long LOW_BITS = 0x0101010101010101L;
+    /**
+     * Lower seven bits of every byte of a long.
+     */
+    private static final long SEVEN_BITS = 0x7F7F7F7F7F7F7F7FL;
+    /**
+     * Reads eight bytes of a column as one long, first byte lowest.
+     */
+    private static final VarHandle LANES = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * Letters of the words.
+     */
+    private final Alphabet alphabet;
+    /**
+     * Alphabet index of the letter of every word, by position and word.
+     */
+    private final byte[][] columns;
+    /**
+     * Number of words held.
+     */
+    private int size;
+
+    /**
+     * Creates new main.WordColumns.
+     *
+     * @param words family, all of the same length
+     * @param length of the words
+     * @param alphabet holding every letter of the words, of at most MAX_LETTERS letters
+     * @throws IllegalArgumentException if the alphabet is too large
+     */
+    WordColumns(Collection<String> words, int length, Alphabet alphabet) {
+        if (alphabet.size() > MAX_LETTERS) {
+            throw new IllegalArgumentException();
+        }
+        this.alphabet = alphabet;
+        this.columns = new byte[length][words.size()];
+        load(words);
+    }
+
+    /**
+     * Keys the words of a family for a guess, as FamilyPartitioner.keyOf would.
+     *
+     * @param words family, in the order the keys are wanted in
+     * @param guess that user provided
+     * @param keys to fill, one per word
+     */
+    void key(Collection<String> words, char guess, long[] keys) {
+        if (words.size() != this.size) load(words);
+        Arrays.fill(keys, 0, this.size, 0);
+        int letter = this.alphabet.indexOf(guess);
+        if (letter < 0) return;
+        long broadcast = LOW_BITS * letter;
+        int length = this.columns.length;
+        int lanes = this.size - this.size % Long.BYTES;
+        for (int position = 0; position < length; position++) {
+            byte[] column = this.columns[position];
+            long mask = 1L << (length - 1 - position);
+            for (int i = 0; i < lanes; i += Long.BYTES) {
+                long zeros = (long) LANES.get(column, i) ^ broadcast;
+                long matches = ~(((zeros & SEVEN_BITS) + SEVEN_BITS) | zeros | SEVEN_BITS);
+                while (matches != 0) {
+                    keys[i + (Long.numberOfTrailingZeros(matches) >>> 3)] |= mask;
+                    matches &= matches - 1;
+                }
+            }
+            for (int i = lanes; i < this.size; i++) {
+                if (column[i] == (byte) letter) keys[i] |= mask;
+            }
+        }
+    }
+
+    /**
+     * Narrows the columns down to one family, keeping the words in order.
+     *
+     * @param keys of the words, as filled by key
+     * @param key of the family to keep, ignored if the columns are out of date
+     */
+    void narrow(long[] keys, long key) {
+        if (this.size < 0) return;
+        int kept = 0;
+        for (byte[] column : this.columns) {
+            kept = 0;
+            for (int i = 0; i < this.size; i++) {
+                if (keys[i] == key) column[kept++] = column[i];
+            }
+        }
+        this.size = kept;
+    }
+
+    /**
+     * Marks the columns as out of date, for when a family was keyed without them, so that they are loaded again
+     * before the next family is keyed.
+     */
+    void invalidate() {
+        this.size = -1;
+    }
+
+    /**
+     * 'Helper' that copies a family into the columns.
+     *
+     * @param words family, all from the alphabet and no more than the columns were created for
+     */
+    private void load(Collection<String> words) {
+        int i = 0;
+        for (String word : words) {
+            for (int position = 0; position < this.columns.length; position++) {
+                this.columns[position][i] = (byte) this.alphabet.indexOf(word.charAt(position));
+            }
+            i++;
+        }
+        this.size = i;
+    }
+}
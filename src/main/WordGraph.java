@@ -0,0 +1,514 @@
+package main;
+
+import java.util.*;
+
+/**
+ * Immutable directed acyclic word graph over one length bucket of a main.DictionaryIndex: the trie of the words with
+ * every pair of equal subtrees merged into one, so words share the nodes of their common prefixes and of their common
+ * suffixes alike. Built once per length and shared by every main.GraphFamily of that length.
+ *
+ * Nodes are numbered in depth-first order from the root and stored as flat arrays: the edges of a node sit back to back
+ * in ascending letter order, each with the alphabet index of its letter and the node it leads to, and every node
+ * holds the number of words below it. Every word of the bucket is a path of length edges from the root to the one
+ * node without edges.
+ */
+final class WordGraph {
+
+    /**
+     * Length of the words.
+     */
+    private final int length;
+    /**
+     * Letters of the dictionary, which the edges are labeled with.
+     */
+    private final Alphabet alphabet;
+    /**
+     * First edge of every node, with one more entry past the last node, so the edges of a node run up to the first
+     * edge of the next.
+     */
+    private final int[] firstEdge;
+    /**
+     * Alphabet index of the letter of every edge.
+     */
+    private final char[] letters;
+    /**
+     * Node every edge leads to.
+     */
+    private final int[] targets;
+    /**
+     * Number of words below every node.
+     */
+    private final int[] words;
+    /**
+     * Most edges leaving any node.
+     */
+    private final int maxDegree;
+    /**
+     * Scratch space of the walks of every thread over this graph.
+     */
+    private final ThreadLocal<Memo> memos = ThreadLocal.withInitial(() -> new Memo(this));
+
+    /**
+     * Creates new main.WordGraph, merging equal subtrees as the words come in (Daciuk et al., incremental
+     * construction from sorted data): only the path of the last word is kept unmerged, and each of its nodes is
+     * merged with an equal node or numbered as a new one once the next word leaves it.
+     *
+     * @param bucket words of one length, sorted in natural order without duplicates
+     * @param length of the words
+     * @param alphabet of the dictionary, holding every letter of the bucket
+     */
+    WordGraph(Iterable<String> bucket, int length, Alphabet alphabet) {
+        this.length = length;
+        this.alphabet = alphabet;
+        Builder builder = new Builder(length, alphabet);
+        Node[] path = new Node[length + 1];
+        String previous = null;
+        for (String word : bucket) {
+            int common = 0;
+            if (previous != null) {
+                while (word.charAt(common) == previous.charAt(common)) {
+                    common++;
+                }
+                builder.merge(path, previous, common);
+            }
+            for (int depth = common + 1; depth <= length; depth++) {
+                path[depth] = new Node();
+            }
+            if (previous == null) path[0] = new Node();
+            previous = word;
+        }
+        if (previous != null) {
+            builder.merge(path, previous, 0);
+            builder.register(path[0], length == 0);
+        } else {
+            builder.register(new Node(), false);
+        }
+        // Renumber the nodes in the order a depth-first walk from the root first reaches them, so that walks read
+        // the arrays mostly forward instead of jumping between nodes numbered as they were merged.
+        int[] order = new int[builder.nodes];
+        int[] renumbered = new int[builder.nodes];
+        Arrays.fill(renumbered, -1);
+        int[] stack = new int[builder.edges + 1];
+        int top = 0;
+        int numbered = 0;
+        stack[top++] = builder.nodes - 1;
+        while (top > 0) {
+            int node = stack[--top];
+            if (renumbered[node] >= 0) continue;
+            renumbered[node] = numbered;
+            order[numbered++] = node;
+            int end = node + 1 < builder.nodes ? builder.firstEdge[node + 1] : builder.edges;
+            for (int edge = end - 1; edge >= builder.firstEdge[node]; edge--) {
+                if (renumbered[builder.targets[edge]] < 0) stack[top++] = builder.targets[edge];
+            }
+        }
+        this.firstEdge = new int[builder.nodes + 1];
+        this.letters = new char[builder.edges];
+        this.targets = new int[builder.edges];
+        this.words = new int[builder.nodes];
+        int edges = 0;
+        for (int node = 0; node < builder.nodes; node++) {
+            int old = order[node];
+            int end = old + 1 < builder.nodes ? builder.firstEdge[old + 1] : builder.edges;
+            this.firstEdge[node] = edges;
+            this.words[node] = builder.words[old];
+            for (int edge = builder.firstEdge[old]; edge < end; edge++) {
+                this.letters[edges] = builder.letters[edge];
+                this.targets[edges++] = renumbered[builder.targets[edge]];
+            }
+        }
+        this.firstEdge[builder.nodes] = edges;
+        int maxDegree = 0;
+        for (int node = 0; node < builder.nodes; node++) {
+            maxDegree = Math.max(maxDegree, this.firstEdge[node + 1] - this.firstEdge[node]);
+        }
+        this.maxDegree = maxDegree;
+    }
+
+    /**
+     * 'Getter' for the word length.
+     *
+     * @return length of the words
+     */
+    int length() {
+        return this.length;
+    }
+
+    /**
+     * 'Getter' for the alphabet.
+     *
+     * @return letters the edges are labeled with
+     */
+    Alphabet alphabet() {
+        return this.alphabet;
+    }
+
+    /**
+     * 'Getter' for the root.
+     *
+     * @return node every word starts from
+     */
+    int root() {
+        return 0;
+    }
+
+    /**
+     * 'Getter' for the number of nodes.
+     *
+     * @return node count
+     */
+    int nodes() {
+        return this.words.length;
+    }
+
+    /**
+     * 'Getter' for the number of edges.
+     *
+     * @return edge count
+     */
+    int edges() {
+        return this.letters.length;
+    }
+
+    /**
+     * 'Getter' for the largest out-degree.
+     *
+     * @return most edges leaving any node
+     */
+    int maxDegree() {
+        return this.maxDegree;
+    }
+
+    /**
+     * 'Getter' for the first edge of a node.
+     *
+     * @param node of the graph
+     * @return index of its first edge
+     */
+    int firstEdge(int node) {
+        return this.firstEdge[node];
+    }
+
+    /**
+     * 'Getter' for the end of the edges of a node.
+     *
+     * @param node of the graph
+     * @return index past its last edge
+     */
+    int endEdge(int node) {
+        return this.firstEdge[node + 1];
+    }
+
+    /**
+     * 'Getter' for the letter of an edge.
+     *
+     * @param edge of the graph
+     * @return alphabet index of its letter
+     */
+    int letter(int edge) {
+        return this.letters[edge];
+    }
+
+    /**
+     * 'Getter' for the node an edge leads to.
+     *
+     * @param edge of the graph
+     * @return node at its end
+     */
+    int target(int edge) {
+        return this.targets[edge];
+    }
+
+    /**
+     * 'Getter' for the words below a node.
+     *
+     * @param node of the graph
+     * @return number of paths from the node to the end of a word
+     */
+    int words(int node) {
+        return this.words[node];
+    }
+
+    /**
+     * Takes the scratch space of the calling thread for a new walk, forgetting what the last walk stored in it.
+     *
+     * @return empty memo of the calling thread
+     */
+    Memo memo() {
+        Memo memo = this.memos.get();
+        memo.clear();
+        return memo;
+    }
+
+    /**
+     * Scratch space of one walk: two ints per node for the nodes it reaches, and the tables main.GraphFamily builds
+     * while partitioning. Games are walked by one thread at a time, so the memo of a thread is shared by every game of
+     * the graph it walks rather than allocated per game, and forgetting a walk costs a stamp increment rather than a
+     * pass over the nodes.
+     */
+    static final class Memo {
+        /**
+         * Family keys of the tables of the nodes reached while partitioning, each table sorted by unsigned key. Entry
+         * 0 is the table of the end of a word, its one family of no revealed position.
+         */
+        long[] tableKeys = new long[16];
+        /**
+         * Family sizes matching tableKeys.
+         */
+        int[] tableSizes = new int[16];
+        /**
+         * Entries of tableKeys in use.
+         */
+        int tableUsed;
+        /**
+         * Keys of the table of the children merged so far.
+         */
+        long[] mergeKeys = new long[16];
+        /**
+         * Sizes matching mergeKeys.
+         */
+        int[] mergeSizes = new int[16];
+        /**
+         * Keys of the table the next child is merged into, swapped with mergeKeys once merged.
+         */
+        long[] mergedKeys = new long[16];
+        /**
+         * Sizes matching mergedKeys.
+         */
+        int[] mergedSizes = new int[16];
+        /**
+         * Entries of mergeKeys in use.
+         */
+        int mergeUsed;
+        /**
+         * Tables of the children of the node being partitioned at every depth, as start and end packed into a long.
+         */
+        final long[][] children;
+        /**
+         * Walk every node was last stored by.
+         */
+        private final int[] stamps;
+        /**
+         * First value of every node.
+         */
+        private final int[] first;
+        /**
+         * Second value of every node.
+         */
+        private final int[] second;
+        /**
+         * Stamp of the current walk.
+         */
+        private int stamp;
+
+        /**
+         * Creates new empty Memo.
+         *
+         * @param graph the memo is for
+         */
+        private Memo(WordGraph graph) {
+            this.stamps = new int[graph.nodes()];
+            this.first = new int[graph.nodes()];
+            this.second = new int[graph.nodes()];
+            this.children = new long[graph.length()][graph.maxDegree()];
+        }
+
+        /**
+         * Forgets every node and table.
+         */
+        private void clear() {
+            if (++this.stamp == 0) {
+                Arrays.fill(this.stamps, 0);
+                this.stamp = 1;
+            }
+            this.tableKeys[0] = 0;
+            this.tableSizes[0] = 1;
+            this.tableUsed = 1;
+            this.mergeUsed = 0;
+        }
+
+        /**
+         * Finds a node.
+         *
+         * @param node of the graph
+         * @return the node if it was stored by the current walk, -1 otherwise
+         */
+        int get(int node) {
+            return this.stamps[node] == this.stamp ? node : -1;
+        }
+
+        /**
+         * Stores the values of a node.
+         *
+         * @param node of the graph
+         * @param first value
+         * @param second value
+         */
+        void put(int node, int first, int second) {
+            this.stamps[node] = this.stamp;
+            this.first[node] = first;
+            this.second[node] = second;
+        }
+
+        /**
+         * 'Getter' for the first value of a node.
+         *
+         * @param node as returned by get
+         * @return first value
+         */
+        int first(int node) {
+            return this.first[node];
+        }
+
+        /**
+         * 'Getter' for the second value of a node.
+         *
+         * @param node as returned by get
+         * @return second value
+         */
+        int second(int node) {
+            return this.second[node];
+        }
+    }
+
+    /**
+     * 'Helper' for the constructor that numbers merged nodes into growing arrays.
+     */
+    private static final class Builder {
+        /**
+         * Length of the words.
+         */
+        private final int length;
+        /**
+         * Letters of the dictionary.
+         */
+        private final Alphabet alphabet;
+        /**
+         * Node numbered for every distinct node seen so far, by its edges.
+         */
+        private final Map<String, Integer> register = new HashMap<>();
+        /**
+         * Node count so far.
+         */
+        private int nodes;
+        /**
+         * Edge count so far.
+         */
+        private int edges;
+        /**
+         * First edge of every numbered node.
+         */
+        private int[] firstEdge = new int[16];
+        /**
+         * Words below every numbered node.
+         */
+        private int[] words = new int[16];
+        /**
+         * Letters of the edges.
+         */
+        private char[] letters = new char[16];
+        /**
+         * Targets of the edges.
+         */
+        private int[] targets = new int[16];
+
+        /**
+         * Creates new Builder without any node.
+         *
+         * @param length of the words
+         * @param alphabet of the dictionary
+         */
+        Builder(int length, Alphabet alphabet) {
+            this.length = length;
+            this.alphabet = alphabet;
+        }
+
+        /**
+         * Merges or numbers the nodes of the path of a word below a depth, deepest first, and links each to its
+         * parent.
+         *
+         * @param path unmerged nodes of the word, from the root
+         * @param word the path spells
+         * @param depth above the first node to merge
+         */
+        void merge(Node[] path, String word, int depth) {
+            for (int i = this.length; i > depth; i--) {
+                int node = register(path[i], i == this.length);
+                path[i - 1].add((char) this.alphabet.indexOf(word.charAt(i - 1)), node, this.words[node]);
+            }
+        }
+
+        /**
+         * Finds the numbered node equal to a node, numbering the node if there is none.
+         *
+         * @param node whose edges are all final
+         * @param end whether the node ends a word
+         * @return number of the node
+         */
+        int register(Node node, boolean end) {
+            StringBuilder signature = new StringBuilder(node.edges * 3);
+            for (int i = 0; i < node.edges; i++) {
+                signature.append(node.letters[i]).append((char) (node.targets[i] >>> 16))
+                        .append((char) node.targets[i]);
+            }
+            Integer known = this.register.get(signature.toString());
+            if (known != null) return known;
+            if (this.nodes == this.words.length) {
+                this.firstEdge = Arrays.copyOf(this.firstEdge, this.nodes * 2);
+                this.words = Arrays.copyOf(this.words, this.nodes * 2);
+            }
+            this.firstEdge[this.nodes] = this.edges;
+            this.words[this.nodes] = end ? 1 : node.words;
+            if (this.edges + node.edges > this.letters.length) {
+                int capacity = Math.max(this.letters.length * 2, this.edges + node.edges);
+                this.letters = Arrays.copyOf(this.letters, capacity);
+                this.targets = Arrays.copyOf(this.targets, capacity);
+            }
+            System.arraycopy(node.letters, 0, this.letters, this.edges, node.edges);
+            System.arraycopy(node.targets, 0, this.targets, this.edges, node.edges);
+            this.edges += node.edges;
+            this.register.put(signature.toString(), this.nodes);
+            return this.nodes++;
+        }
+    }
+
+    /**
+     * Node of the path of the last word, whose edges grow as the nodes below it are merged.
+     */
+    private static final class Node {
+        /**
+         * Letters of the edges.
+         */
+        char[] letters = new char[2];
+        /**
+         * Targets of the edges.
+         */
+        int[] targets = new int[2];
+        /**
+         * Number of edges.
+         */
+        int edges;
+        /**
+         * Words below the node.
+         */
+        int words;
+
+        /**
+         * Adds an edge after every edge already added.
+         *
+         * @param letter alphabet index of the letter of the edge
+         * @param target number of the node the edge leads to
+         * @param words below the target
+         */
+        void add(char letter, int target, int words) {
+            if (this.edges == this.letters.length) {
+                this.letters = Arrays.copyOf(this.letters, this.edges * 2);
+                this.targets = Arrays.copyOf(this.targets, this.edges * 2);
+            }
+            this.letters[this.edges] = letter;
+            this.targets[this.edges] = target;
+            this.edges++;
+            this.words += words;
+        }
+    }
+}